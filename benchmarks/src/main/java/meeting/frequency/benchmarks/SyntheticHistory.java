@@ -0,0 +1,143 @@
+package meeting.frequency.benchmarks;
+
+import meeting.frequency.parameter.Office;
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.integration.slack.pojo.BlocksItem;
+import meeting.frequency.service.integration.slack.pojo.ElementsItem;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+import meeting.frequency.service.process.model.MeetingFrequency;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Reproducible inputs shaped like a real channel, the same seed gives the same data in every fork
+public final class SyntheticHistory {
+
+    private final static long SEED = 42;
+    private final static List<String> COMPANIES = List.of("Volvo", "Scania", "Ericsson", "H&M", "Ica", "Coop",
+            "Spotify", "Klarna", "SEB", "Telia", "Atlas Copco", "Sandvik", "Electrolux", "Vattenfall", "Husqvarna");
+    private final static Office[] OFFICES = Office.values();
+
+    private SyntheticHistory() {
+    }
+
+    public static String userId(final int user) {
+        return "U%08d".formatted(user);
+    }
+
+    public static String realName(final int user) {
+        return "Person " + user;
+    }
+
+    public static Map<String, User> users(final int users) {
+        return IntStream.range(0, users)
+                .boxed()
+                .collect(Collectors.toMap(SyntheticHistory::userId, user -> new User(userId(user), realName(user))));
+    }
+
+    //Every user is placed in an office so no lookups end up on the warning path
+    public static Map<String, Office> roster(final int users) {
+        return IntStream.range(0, users)
+                .boxed()
+                .collect(Collectors.toMap(SyntheticHistory::realName, user -> OFFICES[user % OFFICES.length]));
+    }
+
+    //About one in ten messages is a channel join without blocks, like in a real history
+    public static List<MessagesItem> messages(final int messages, final int users) {
+
+        final Random random = new Random(SEED);
+        final List<MessagesItem> history = new ArrayList<>(messages);
+        final long newest = 1_700_000_000L;
+
+        for (int message = 0; message < messages; message++) {
+            final String user = userId(random.nextInt(users));
+            final String ts = "%d.%06d".formatted(newest - message, message % 1_000_000);
+
+            if (random.nextInt(10) == 0) {
+                history.add(new MessagesItem("<@%s> has joined the channel".formatted(user), "message", user, ts, null));
+            } else {
+                final String text = post(random);
+                history.add(new MessagesItem(text, "message", user, ts, blocks(text)));
+            }
+        }
+
+        return history;
+    }
+
+    public static List<Message> grouped(final int people, final int postsPerPerson) {
+
+        final Random random = new Random(SEED);
+
+        return IntStream.range(0, people)
+                .mapToObj(person -> new Message(userId(person), realName(person), OFFICES[person % OFFICES.length].getRawName(),
+                        IntStream.range(0, postsPerPerson).mapToObj(post -> post(random)).toList()))
+                .toList();
+    }
+
+    public static List<MeetingFrequency> meetingFrequencies(final int people) {
+
+        final Random random = new Random(SEED);
+
+        return IntStream.range(0, people)
+                .mapToObj(person -> {
+                    final List<String> companies = companies(random, 1 + random.nextInt(4));
+                    return new MeetingFrequency(userId(person), realName(person), companies.size() + random.nextInt(3), companies,
+                            OFFICES[person % OFFICES.length].getRawName());
+                })
+                .toList();
+    }
+
+    //A conversations.history page as Slack sends it, including the rich text blocks
+    public static String historyPage(final int messages, final int users) {
+
+        final StringBuilder page = new StringBuilder("{\"ok\":true,\"messages\":[");
+
+        final List<MessagesItem> history = messages(messages, users);
+        for (int message = 0; message < history.size(); message++) {
+            final MessagesItem messagesItem = history.get(message);
+            if (message > 0) {
+                page.append(',');
+            }
+            page.append("{\"type\":\"message\",\"user\":\"").append(messagesItem.user())
+                    .append("\",\"ts\":\"").append(messagesItem.ts())
+                    .append("\",\"client_msg_id\":\"").append(new UUID(message, message))
+                    .append("\",\"team\":\"T0001\",\"text\":\"").append(messagesItem.text().replace("\n", "\\n")).append('"');
+            if (messagesItem.blocks() != null) {
+                page.append(",\"blocks\":[{\"type\":\"rich_text\",\"block_id\":\"b").append(message)
+                        .append("\",\"elements\":[{\"type\":\"rich_text_section\",\"elements\":[{\"type\":\"text\",\"text\":\"")
+                        .append(messagesItem.text().replace("\n", "\\n")).append("\"}]}]}]");
+            }
+            page.append('}');
+        }
+
+        return page.append("],\"has_more\":true,\"pin_count\":0,\"response_metadata\":{\"next_cursor\":\"bmV4dF90czoxNzAw\"}}")
+                .toString();
+    }
+
+    private static String post(final Random random) {
+
+        final int companies = 1 + random.nextInt(3);
+        return (companies == 1 ? "1 möte: " : companies + " möten: ") + String.join(", ", companies(random, companies));
+    }
+
+    private static List<String> companies(final Random random, final int count) {
+
+        final Map<String, Boolean> picked = new HashMap<>();
+        while (picked.size() < count) {
+            picked.put(COMPANIES.get(random.nextInt(COMPANIES.size())), true);
+        }
+        return List.copyOf(picked.keySet());
+    }
+
+    private static List<BlocksItem> blocks(final String text) {
+        return List.of(new BlocksItem(List.of(new ElementsItem(List.of(new ElementsItem(null, "text", text)),
+                "rich_text_section", null)), "rich_text", "b"));
+    }
+}
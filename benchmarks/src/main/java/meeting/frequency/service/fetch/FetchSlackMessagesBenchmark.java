@@ -0,0 +1,69 @@
+package meeting.frequency.service.fetch;
+
+import meeting.frequency.benchmarks.SyntheticHistory;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.OfficeRoster;
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+//Grouping of a week of history per user, Slack is replaced by an in-memory history and user directory
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class FetchSlackMessagesBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int messages;
+
+    @Param({"250"})
+    private int users;
+
+    private FetchSlackMessages fetchSlackMessages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        final List<MessagesItem> history = SyntheticHistory.messages(messages, users);
+        final Map<String, User> directory = SyntheticHistory.users(users);
+        final OfficeRoster roster = OfficeRoster.of(SyntheticHistory.roster(users));
+        final Logger logger = Logger.getLogger(FetchSlackMessagesBenchmark.class.getName());
+
+        fetchSlackMessages = new FetchSlackMessages(
+                oldest -> history.stream(),
+                userIds -> userIds.stream().collect(Collectors.toMap(userId -> userId, directory::get)),
+                50,
+                () -> roster,
+                new OfficeDirectory(logger),
+                new Metrics(Clock.systemUTC()),
+                logger);
+    }
+
+    @Benchmark
+    public List<Message> fetchMessages() {
+        return fetchSlackMessages.fetchMessages();
+    }
+}
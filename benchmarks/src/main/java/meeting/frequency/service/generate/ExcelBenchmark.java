@@ -0,0 +1,73 @@
+package meeting.frequency.service.generate;
+
+import meeting.frequency.benchmarks.SyntheticHistory;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Office totals and the workbook written to the temporary directory, like the function does before uploading
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int people;
+
+    private ExcelClient excelClient;
+    private ExcelDocumentService excelDocumentService;
+    private List<MeetingFrequency> meetingFrequencies;
+    private Map<String, Integer> officeToTotalMeetings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        excelClient = new ExcelClient("benchmark");
+        excelDocumentService = new ExcelDocumentService(excelClient);
+        meetingFrequencies = SyntheticHistory.meetingFrequencies(people);
+        officeToTotalMeetings = excelDocumentService.getOfficeToTotalMeetings(meetingFrequencies);
+    }
+
+    @Benchmark
+    public Map<String, Integer> officeToTotalMeetings() {
+        return excelDocumentService.getOfficeToTotalMeetings(meetingFrequencies);
+    }
+
+    @Benchmark
+    public long generateDocument() throws IOException {
+
+        final File document = excelClient.generateDocument(meetingFrequencies, officeToTotalMeetings);
+        try {
+            return document.length();
+        } finally {
+            Files.deleteIfExists(document.toPath());
+        }
+    }
+
+    //Without the file system, to tell POI time from disk time
+    @Benchmark
+    public void writeDocument() throws IOException {
+        excelClient.writeDocument(meetingFrequencies, officeToTotalMeetings, OutputStream.nullOutputStream());
+    }
+}
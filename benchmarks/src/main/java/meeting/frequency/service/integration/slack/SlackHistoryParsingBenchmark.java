@@ -0,0 +1,64 @@
+package meeting.frequency.service.integration.slack;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.benchmarks.SyntheticHistory;
+import meeting.frequency.service.integration.slack.pojo.SlackHistoryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+//One conversations.history page, read by the streaming parser and by plain data binding for comparison
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlackHistoryParsingBenchmark {
+
+    //Slack allows at most 999 messages per page
+    @Param({"100", "999"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private SlackHistoryParser slackHistoryParser;
+    private byte[] page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        objectMapper = new ObjectMapper();
+        slackHistoryParser = new SlackHistoryParser(objectMapper.getFactory());
+        page = SyntheticHistory.historyPage(pageSize, 250).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public SlackHistoryResponse streamingParser() throws IOException {
+        return slackHistoryParser.parse(new ByteArrayInputStream(page));
+    }
+
+    @Benchmark
+    public SlackHistoryResponse dataBinding() throws IOException {
+        return objectMapper.readValue(page, SlackHistoryResponse.class);
+    }
+
+    //How pages were read before the streaming parser, the body was first collected into a String
+    @Benchmark
+    public SlackHistoryResponse dataBindingFromString() throws IOException {
+        return objectMapper.readValue(new String(page, StandardCharsets.UTF_8), SlackHistoryResponse.class);
+    }
+}
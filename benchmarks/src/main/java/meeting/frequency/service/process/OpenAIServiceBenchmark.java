@@ -0,0 +1,51 @@
+package meeting.frequency.service.process;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.benchmarks.SyntheticHistory;
+import meeting.frequency.service.fetch.model.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Prompt building only, the OpenAI client is never called so none is created
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenAIServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int people;
+
+    @Param({"5"})
+    private int postsPerPerson;
+
+    private OpenAIService openAIService;
+    private List<Message> messages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        openAIService = new OpenAIService(null, new ObjectMapper());
+        messages = SyntheticHistory.grouped(people, postsPerPerson);
+    }
+
+    @Benchmark
+    public String generatePrompt() {
+        return openAIService.generatePrompt(messages);
+    }
+}
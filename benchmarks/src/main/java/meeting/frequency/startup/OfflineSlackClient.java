@@ -0,0 +1,220 @@
+package meeting.frequency.startup;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+
+//Answers Slack calls with canned responses so a cold start can be measured and trained without network or secrets
+class OfflineSlackClient extends HttpClient {
+
+    private final static String HISTORY = """
+            {"ok": true, "has_more": false, "messages": [
+              {"user": "U1", "type": "message", "ts": "%1$d.000100", "text": "3 möten: Volvo, Scania • Ericsson", "blocks": [{"type": "rich_text"}]},
+              {"user": "U2", "type": "message", "ts": "%1$d.000200", "text": "1 möte (Ikea)", "blocks": [{"type": "rich_text"}]},
+              {"user": "U1", "type": "message", "ts": "%1$d.000300", "text": ":handshake: *2 möten* <https://volvo.se|Volvo>, H&M.", "blocks": [{"type": "rich_text"}]},
+              {"user": "U2", "type": "message", "ts": "%1$d.000400", "text": "<@U2> has joined the channel"}
+            ]}""";
+    private final static String USER = """
+            {"ok": true, "user": {"id": "%1$s", "real_name": "Startup probe %1$s"}}""";
+    private final static String START_UPLOAD = """
+            {"ok": true, "upload_url": "https://files.slack.com/upload/v1/offline", "file_id": "F0"}""";
+    private final static String COMPLETE_UPLOAD = """
+            {"ok": true, "files": [{"id": "F0", "title": "offline"}]}""";
+
+    private volatile long firstRequestNanos;
+
+    long firstRequestNanos() {
+        return firstRequestNanos;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(final HttpRequest request, final HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+
+        if (firstRequestNanos == 0) {
+            firstRequestNanos = System.nanoTime();
+        }
+
+        final String body = respond(request.uri());
+        final HttpHeaders headers = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+        final HttpResponse.BodySubscriber<T> bodySubscriber = bodyHandler.apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public Version version() {
+                return Version.HTTP_1_1;
+            }
+        });
+        bodySubscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(final long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        bodySubscriber.onNext(List.of(ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8))));
+        bodySubscriber.onComplete();
+
+        final T responseBody;
+        try {
+            responseBody = bodySubscriber.getBody().toCompletableFuture().get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException(e);
+        }
+
+        return new HttpResponse<>() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpRequest request() {
+                return request;
+            }
+
+            @Override
+            public Optional<HttpResponse<T>> previousResponse() {
+                return Optional.empty();
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public T body() {
+                return responseBody;
+            }
+
+            @Override
+            public Optional<SSLSession> sslSession() {
+                return Optional.empty();
+            }
+
+            @Override
+            public URI uri() {
+                return request.uri();
+            }
+
+            @Override
+            public Version version() {
+                return Version.HTTP_1_1;
+            }
+        };
+    }
+
+    private static String respond(final URI uri) {
+
+        final String path = uri.getPath();
+
+        if (path.endsWith("conversations.history")) {
+            return HISTORY.formatted(System.currentTimeMillis() / 1000 - 3600);
+        }
+        if (path.endsWith("users.info")) {
+            return USER.formatted(uri.getQuery().substring(uri.getQuery().indexOf('=') + 1));
+        }
+        if (path.endsWith("files.getUploadURLExternal")) {
+            return START_UPLOAD;
+        }
+        if (path.endsWith("files.completeUploadExternal")) {
+            return COMPLETE_UPLOAD;
+        }
+
+        return "OK";
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request, final HttpResponse.BodyHandler<T> bodyHandler) {
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return send(request, bodyHandler);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request, final HttpResponse.BodyHandler<T> bodyHandler,
+                                                            final HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return sendAsync(request, bodyHandler);
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return Redirect.NEVER;
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return Optional.empty();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return null;
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return null;
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Version version() {
+        return Version.HTTP_1_1;
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,92 @@
+package meeting.frequency.startup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Starts StartupProbe in fresh JVMs without and with the CDS archive and prints the median of each measurement
+//usage: StartupBenchmark <archive.jsa> [runs]
+public class StartupBenchmark {
+
+    private final static Pattern MEASUREMENT = Pattern.compile("\"(\\w+)\": (\\d+)");
+    private final static List<String> KEYS = List.of("jvmToMainMs", "timeToFirstRequestMs", "timeToReportMs");
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+
+        final Path archive = Path.of(args[0]);
+        final int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        final List<long[]> withoutArchive = run(List.of("-Xshare:auto"), runs);
+        System.out.println("without CDS archive : " + medians(withoutArchive));
+
+        if (!Files.exists(archive)) {
+            System.out.println("No archive at %s, run with -Pcds to create it".formatted(archive));
+            return;
+        }
+
+        final List<long[]> withArchive = run(List.of("-XX:SharedArchiveFile=" + archive), runs);
+        System.out.println("with CDS archive    : " + medians(withArchive));
+    }
+
+    private static List<long[]> run(final List<String> jvmOptions, final int runs) throws IOException, InterruptedException {
+
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        //Started the same way as the training run, the probe on the module path and the function on the class path.
+        //The function needs the JDK modules that are only resolved by default for an unnamed main module
+        command.add("--module-path");
+        command.add(System.getProperty("jdk.module.path"));
+        command.add("--add-modules");
+        command.add("ALL-DEFAULT");
+        command.add("--module");
+        command.add(StartupProbe.class.getModule().getName() + "/" + StartupProbe.class.getName());
+
+        final List<long[]> measurements = new ArrayList<>();
+
+        for (int run = 0; run < runs; run++) {
+            final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("Startup probe failed :%n%s".formatted(output));
+            }
+
+            final long[] measurement = new long[KEYS.size()];
+            final Matcher matcher = MEASUREMENT.matcher(output);
+            while (matcher.find()) {
+                final int index = KEYS.indexOf(matcher.group(1));
+                if (index >= 0) {
+                    measurement[index] = Long.parseLong(matcher.group(2));
+                }
+            }
+            measurements.add(measurement);
+        }
+
+        return measurements;
+    }
+
+    private static String medians(final List<long[]> measurements) {
+
+        final List<String> medians = new ArrayList<>();
+
+        for (int index = 0; index < KEYS.size(); index++) {
+            final List<Long> values = new ArrayList<>();
+            for (long[] measurement : measurements) {
+                values.add(measurement[index]);
+            }
+            Collections.sort(values);
+            medians.add("%s=%d".formatted(KEYS.get(index), values.get(values.size() / 2)));
+        }
+
+        return String.join(", ", medians);
+    }
+}
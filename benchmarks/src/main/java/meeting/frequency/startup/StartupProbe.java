@@ -0,0 +1,61 @@
+package meeting.frequency.startup;
+
+import meeting.frequency.Handler;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.ParameterService;
+import meeting.frequency.parameter.ParameterServiceImpl;
+import meeting.frequency.secret.model.SlackSecrets;
+import meeting.frequency.service.fetch.FetchSlackMessages;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.fetch.user.SlackUserResolver;
+import meeting.frequency.service.generate.ExcelDocumentService;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.process.local.LocalMeetingParserService;
+import meeting.frequency.service.upload.SlackUploadService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Runs a whole weekly report in a fresh JVM against canned Slack responses and prints how long after JVM start
+//the first request was sent and the report was uploaded. Used as the training run for the CDS archive.
+public class StartupProbe {
+
+    public static void main(final String[] args) {
+
+        final Instant jvmStart = ProcessHandle.current().info().startInstant().orElseGet(Instant::now);
+        final long mainNanos = System.nanoTime();
+        final Instant mainStart = Instant.now();
+
+        final Logger logger = Logger.getLogger(StartupProbe.class.getName());
+        logger.setLevel(Level.SEVERE);
+
+        final ParameterService parameterService = new ParameterServiceImpl();
+        final OfflineSlackClient offlineSlackClient = new OfflineSlackClient();
+        final SlackHttpClient slackHttpClient = new SlackHttpClient(new SlackSecrets("offline", "C0", "C0"), offlineSlackClient, logger);
+
+        //Same chain as Handler(Logger), without the LLM since every canned post is parsed locally
+        final Handler handler = new Handler(
+                new FetchSlackMessages(slackHttpClient::streamSlackHistory, new SlackUserResolver(slackHttpClient, 2, logger),
+                        parameterService.bulkUserLookupThreshold(), parameterService::officeRoster, new OfficeDirectory(logger),
+                        new Metrics(Clock.systemUTC()), logger),
+                new LocalMeetingParserService(messages -> List.of(), logger),
+                new ExcelDocumentService(),
+                new SlackUploadService(slackHttpClient),
+                meetingFrequencies -> List.of(),
+                logger);
+
+        handler.weeklyReport();
+
+        final long reportNanos = System.nanoTime();
+        final long beforeMainMillis = Duration.between(jvmStart, mainStart).toMillis();
+
+        System.out.printf("{\"jvmToMainMs\": %d, \"timeToFirstRequestMs\": %d, \"timeToReportMs\": %d}%n",
+                beforeMainMillis,
+                beforeMainMillis + Duration.ofNanos(offlineSlackClient.firstRequestNanos() - mainNanos).toMillis(),
+                beforeMainMillis + Duration.ofNanos(reportNanos - mainNanos).toMillis());
+    }
+}
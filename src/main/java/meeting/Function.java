@@ -3,7 +3,7 @@ package meeting;
 import com.microsoft.azure.functions.ExecutionContext;
 import com.microsoft.azure.functions.annotation.FunctionName;
 import com.microsoft.azure.functions.annotation.TimerTrigger;
-import meeting.frequency.Handler;
+import meeting.frequency.MultiChannelHandler;
 
 import java.util.logging.Logger;
 
@@ -17,9 +17,8 @@ public class Function {
 //            ) String timerInfo,
 //            ExecutionContext context) {
 //        Logger logger = context.getLogger();
-//        final Handler handler = new Handler(logger);
 //
-//        handler.weeklyRepost();
+//        MultiChannelHandler.runWeeklyRepost(logger);
 //    }
 
 }
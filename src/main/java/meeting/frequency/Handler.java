@@ -1,5 +1,7 @@
 package meeting.frequency;
 
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.metrics.MetricsExporter;
 import meeting.frequency.parameter.ParameterService;
 import meeting.frequency.parameter.ParameterServiceImpl;
 import meeting.frequency.secret.SecretService;
@@ -9,13 +11,19 @@ import meeting.frequency.service.fetch.FetchSlackMessages;
 import meeting.frequency.service.fetch.model.Message;
 import meeting.frequency.service.generate.ExcelDocumentService;
 import meeting.frequency.service.generate.GenerateDocumentService;
+import meeting.frequency.service.history.FileHistoryService;
+import meeting.frequency.service.history.HistoryService;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
 import meeting.frequency.service.process.OpenAIService;
 import meeting.frequency.service.process.ProcessMessageService;
+import meeting.frequency.service.process.cache.CachingProcessMessageService;
+import meeting.frequency.service.process.cache.MeetingFrequencyCache;
+import meeting.frequency.service.process.local.LocalMeetingParserService;
 import meeting.frequency.service.process.model.MeetingFrequency;
 import meeting.frequency.service.upload.SlackUploadService;
 import meeting.frequency.service.upload.UploadService;
 
-import java.io.File;
+import java.time.Clock;
 import java.util.Comparator;
 import java.util.List;
 import java.util.logging.Level;
@@ -25,8 +33,9 @@ public class Handler {
 
     private final FetchMessageService fetchMessageService;
     private final ProcessMessageService processMessageService;
-    private final GenerateDocumentService generateDocumentService;
-    private final UploadService uploadService;
+    private final ReportPublisher reportPublisher;
+    private final Metrics metrics;
+    private final MetricsExporter metricsExporter;
 
     private final Logger logger;
 
@@ -34,32 +43,93 @@ public class Handler {
                    final GenerateDocumentService generateDocumentService, final UploadService uploadService,
                    final Logger logger) {
 
+        this(fetchMessageService, processMessageService, generateDocumentService, uploadService,
+                meetingFrequencies -> List.of(), logger);
+    }
+
+    public Handler(final FetchMessageService fetchMessageService, final ProcessMessageService processMessageService,
+                   final GenerateDocumentService generateDocumentService, final UploadService uploadService,
+                   final HistoryService historyService, final Logger logger) {
+
+        this(fetchMessageService, processMessageService, generateDocumentService, uploadService, historyService,
+                new Metrics(Clock.systemUTC()), new MetricsExporter(logger), logger);
+    }
+
+    public Handler(final FetchMessageService fetchMessageService, final ProcessMessageService processMessageService,
+                   final GenerateDocumentService generateDocumentService, final UploadService uploadService,
+                   final HistoryService historyService, final Metrics metrics, final MetricsExporter metricsExporter,
+                   final Logger logger) {
+
         this.fetchMessageService = fetchMessageService;
         this.processMessageService = processMessageService;
-        this.generateDocumentService = generateDocumentService;
-        this.uploadService = uploadService;
+        this.reportPublisher = new ReportPublisher(generateDocumentService, uploadService, historyService, metrics, logger);
+        this.metrics = metrics;
+        this.metricsExporter = metricsExporter;
         this.logger = logger;
     }
 
     public Handler(final Logger logger) {
 
-        SecretService secretService = new SecretServiceImpl();
-        ParameterService parameterService = new ParameterServiceImpl();
+        this(new SecretServiceImpl(), new ParameterServiceImpl(), logger);
+    }
+
+    public Handler(final SecretService secretService, final ParameterService parameterService, final Logger logger) {
+
+        //One instance for the run, so every service records into what is exported and other runs do not
+        final Metrics metrics = new Metrics(Clock.systemUTC());
 
-        this.fetchMessageService = new FetchSlackMessages(secretService, parameterService, logger);
-        this.processMessageService = new OpenAIService(secretService);
-        this.generateDocumentService = new ExcelDocumentService();
-        this.uploadService = new SlackUploadService(secretService, logger);
+        this.fetchMessageService = FetchSlackMessages.fetchSlackMessages(secretService, parameterService, metrics, logger);
+        this.processMessageService = processMessageService(secretService, parameterService, metrics, logger);
+        this.reportPublisher = new ReportPublisher(new ExcelDocumentService(),
+                new SlackUploadService(new SlackHttpClient(secretService, parameterService, metrics, logger)),
+                new FileHistoryService(parameterService.historyDirectory(), parameterService.trendWeeks(), logger),
+                metrics, logger);
+        this.metrics = metrics;
+        this.metricsExporter = new MetricsExporter(parameterService.metricsDirectory(), logger);
         this.logger = logger;
     }
 
 
+    //Local parsing first, the LLM for the rest, with its results cached between runs and channels
+    static ProcessMessageService processMessageService(final SecretService secretService,
+                                                       final ParameterService parameterService,
+                                                       final Metrics metrics,
+                                                       final Logger logger) {
+
+        final OpenAIService openAIService = new OpenAIService(secretService, parameterService, metrics, logger);
+
+        return new LocalMeetingParserService(
+                new CachingProcessMessageService(openAIService,
+                        new MeetingFrequencyCache(parameterService.cacheDirectory().resolve("openai"), logger),
+                        openAIService.resultVersion(), metrics, logger),
+                metrics, logger);
+    }
+
+    //Timings, request counts and token usage of the run are exported when it ends, also when it fails
     public void weeklyRepost() {
 
+        try {
+            weeklyReport();
+        } finally {
+            save();
+            metricsExporter.export(metrics.summary());
+        }
+    }
+
+    //Lookups paid for are kept also when the run fails
+    void save() {
+        fetchMessageService.save();
+    }
+
+    //Runs the whole chain and returns what was reported, so several channels can be combined
+    public List<MeetingFrequency> weeklyReport() {
+
         try {
 
             logger.log(Level.INFO, "Fetching messages...");
+            long started = System.nanoTime();
             final List<Message> messages = fetchMessageService.fetchMessages();
+            metrics.recordSince("stage.fetch", started);
 
             if (messages.isEmpty()) {
                 logger.log(Level.SEVERE, "Could not find messages");
@@ -67,28 +137,22 @@ public class Handler {
             }
 
             logger.log(Level.INFO, "Process messages...");
+            started = System.nanoTime();
             final List<MeetingFrequency> meetingFrequency = processMessageService.process(messages)
                     .stream()
                     .filter(frequency -> frequency.meetings() > 0)
                     .sorted(Comparator.comparingInt(MeetingFrequency::meetings).reversed())
                     .toList();
+            metrics.recordSince("stage.process", started);
+            metrics.add("report.people", meetingFrequency.size());
 
-            logger.log(Level.INFO, "Generate file...");
-            File file = generateDocumentService.generateDocument(meetingFrequency);
-
-            logger.log(Level.INFO, "Upload file...");
-            final boolean uploadSuccess = uploadService.upload(file);
+            reportPublisher.publish(meetingFrequency);
 
-            if (uploadSuccess) {
-                logger.log(Level.INFO, "Successfully uploaded file : " + file);
-            } else {
-                logger.log(Level.SEVERE, "Failed uploaded file : " + file);
-                throw new RuntimeException("Failed to upload file");
-            }
+            return meetingFrequency;
 
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package meeting.frequency;
+
+import java.util.function.Supplier;
+
+//Creates the value on first use and keeps it, so heavy clients are not built on cold start unless a run needs them
+public final class Lazy<T> implements Supplier<T> {
+
+    private final Supplier<T> factory;
+    private volatile T value;
+
+    private Lazy(final Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    public static <T> Lazy<T> of(final Supplier<T> factory) {
+        return new Lazy<>(factory);
+    }
+
+    @Override
+    public T get() {
+
+        T current = value;
+
+        if (current == null) {
+            synchronized (this) {
+                current = value;
+                if (current == null) {
+                    current = factory.get();
+                    value = current;
+                }
+            }
+        }
+
+        return current;
+    }
+}
@@ -0,0 +1,211 @@
+package meeting.frequency;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.metrics.MetricsExporter;
+import meeting.frequency.parameter.ParameterService;
+import meeting.frequency.parameter.ParameterServiceImpl;
+import meeting.frequency.parameter.SlackChannel;
+import meeting.frequency.secret.SecretService;
+import meeting.frequency.secret.SecretServiceImpl;
+import meeting.frequency.service.fetch.FetchSlackMessages;
+import meeting.frequency.service.fetch.ThreadedMessageHistory;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.fetch.store.MessageStore;
+import meeting.frequency.service.fetch.store.StoredMessageHistory;
+import meeting.frequency.service.fetch.user.UserResolver;
+import meeting.frequency.service.generate.ExcelClient;
+import meeting.frequency.service.generate.ExcelDocumentService;
+import meeting.frequency.service.history.FileHistoryService;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.process.ProcessMessageService;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import meeting.frequency.service.upload.SlackUploadService;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Runs the weekly report for several channels at once, each channel gets its own report and
+//a combined report of every channel that succeeded is uploaded to the channel in the Slack secrets
+public class MultiChannelHandler {
+
+    //Keyed by channel id
+    private final Map<String, Handler> channelHandlers;
+    private final ReportPublisher combinedPublisher;
+    private final int parallelism;
+    private final Metrics metrics;
+    private final MetricsExporter metricsExporter;
+    private final Logger logger;
+
+    public MultiChannelHandler(final Map<String, Handler> channelHandlers, final ReportPublisher combinedPublisher,
+                               final int parallelism, final Metrics metrics, final MetricsExporter metricsExporter,
+                               final Logger logger) {
+
+        if (channelHandlers.isEmpty()) {
+            throw new IllegalArgumentException("At least one channel handler is needed");
+        }
+
+        this.channelHandlers = channelHandlers;
+        this.combinedPublisher = combinedPublisher;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+        this.metricsExporter = metricsExporter;
+        this.logger = logger;
+    }
+
+    public MultiChannelHandler(final Logger logger) {
+
+        this(new SecretServiceImpl(), new ParameterServiceImpl(), logger);
+    }
+
+    public MultiChannelHandler(final SecretService secretService, final ParameterService parameterService,
+                               final Logger logger) {
+
+        //Running no channels would look like a successful report
+        if (parameterService.slackChannels().isEmpty()) {
+            throw new IllegalStateException("No channels to report, set SlackChannels");
+        }
+
+        //Transport, rate limits, metrics, user and office directories and LLM cache are shared by every channel.
+        //The metrics are this run's own, a run started while another is still going counts apart
+        final Metrics metrics = new Metrics(Clock.systemUTC());
+        final SlackHttpClient slackHttpClient = new SlackHttpClient(secretService, parameterService, metrics, logger);
+        final UserResolver userResolver = FetchSlackMessages.userDirectory(slackHttpClient, parameterService, logger);
+        final ProcessMessageService processMessageService = Handler.processMessageService(secretService, parameterService, metrics, logger);
+        final OfficeDirectory officeDirectory = FetchSlackMessages.officeDirectory(slackHttpClient, parameterService, metrics, logger);
+        final Path historyDirectory = parameterService.historyDirectory();
+
+        this.channelHandlers = new LinkedHashMap<>();
+
+        for (SlackChannel slackChannel : parameterService.slackChannels()) {
+            final SlackHttpClient channelClient = slackHttpClient.forChannel(slackChannel);
+
+            channelHandlers.put(slackChannel.channelId(), new Handler(
+                    new FetchSlackMessages(
+                            new StoredMessageHistory(
+                                    new ThreadedMessageHistory(channelClient, parameterService.threadReplyParallelism(), metrics, logger),
+                                    new MessageStore(parameterService.messageStoreDirectory(), slackChannel.channelId(),
+                                            Duration.ofDays(7L * parameterService.trendWeeks()), logger), logger),
+                            userResolver, parameterService.bulkUserLookupThreshold(), parameterService::officeRoster, officeDirectory, metrics, logger),
+                    processMessageService,
+                    new ExcelDocumentService(new ExcelClient(slackChannel.name())),
+                    new SlackUploadService(channelClient),
+                    new FileHistoryService(historyDirectory.resolve("channels").resolve(slackChannel.name()),
+                            parameterService.trendWeeks(), logger),
+                    logger));
+        }
+
+        //Fetching and processing happen per channel, the combined report is only published
+        this.combinedPublisher = new ReportPublisher(
+                new ExcelDocumentService(new ExcelClient("All channels")),
+                new SlackUploadService(slackHttpClient),
+                new FileHistoryService(historyDirectory.resolve("combined"), parameterService.trendWeeks(), logger),
+                metrics, logger);
+        this.parallelism = parameterService.channelParallelism();
+        this.metrics = metrics;
+        this.metricsExporter = new MetricsExporter(parameterService.metricsDirectory(), logger);
+        this.logger = logger;
+    }
+
+    //SlackChannels reports every listed channel, without it the channel in the Slack secrets is reported as before
+    public static void runWeeklyRepost(final Logger logger) {
+
+        final SecretService secretService = new SecretServiceImpl();
+        final ParameterService parameterService = new ParameterServiceImpl();
+
+        if (parameterService.slackChannels().isEmpty()) {
+            new Handler(secretService, parameterService, logger).weeklyRepost();
+        } else {
+            new MultiChannelHandler(secretService, parameterService, logger).weeklyRepost();
+        }
+    }
+
+    //Every channel records into the same metrics, exported once for the whole run
+    public void weeklyRepost() {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, channelHandlers.size())));
+
+        try {
+            final Map<String, CompletableFuture<List<MeetingFrequency>>> channelReports = new LinkedHashMap<>();
+            channelHandlers.forEach((channel, handler) ->
+                    channelReports.put(channel, CompletableFuture.supplyAsync(() -> {
+                        final long started = System.nanoTime();
+                        try {
+                            return handler.weeklyReport();
+                        } finally {
+                            metrics.recordSince("channel." + channel, started);
+                        }
+                    }, executor)));
+
+            //A failing channel is logged and left out, the others are still reported
+            final List<List<MeetingFrequency>> succeeded = new ArrayList<>();
+            final List<String> failed = new ArrayList<>();
+
+            channelReports.forEach((channel, report) -> {
+                try {
+                    succeeded.add(report.join());
+                    logger.log(Level.INFO, "Reported channel %s".formatted(channel));
+                } catch (Exception e) {
+                    failed.add(channel);
+                    logger.log(Level.SEVERE, "Could not report channel %s : %s".formatted(channel, e.getMessage()));
+                }
+            });
+
+            if (!succeeded.isEmpty()) {
+                combinedPublisher.publish(combine(succeeded));
+            }
+
+            if (!failed.isEmpty()) {
+                throw new IllegalStateException("Failed to report %d of %d channels : %s"
+                        .formatted(failed.size(), channelHandlers.size(), String.join(", ", failed)));
+            }
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdown();
+            //The directories are shared, the first channel writes them and the others find nothing left to write
+            channelHandlers.values().forEach(Handler::save);
+            metricsExporter.export(metrics.summary());
+        }
+    }
+
+    //Someone posting in several channels is added up into one row, matched by user id so namesakes stay apart.
+    //Companies are appended like the meetings are summed, so the list still has one entry per reported meeting
+    static List<MeetingFrequency> combine(final List<List<MeetingFrequency>> channelReports) {
+
+        final Map<String, MeetingFrequency> combined = new LinkedHashMap<>();
+
+        channelReports.stream()
+                .flatMap(List::stream)
+                .forEach(meetingFrequency -> combined.merge(combineKey(meetingFrequency), meetingFrequency, (first, second) -> {
+                    final List<String> companies = new ArrayList<>(first.companies());
+                    companies.addAll(second.companies());
+
+                    return new MeetingFrequency(first.userId(), first.name(), first.meetings() + second.meetings(),
+                            List.copyOf(companies), first.office());
+                }));
+
+        return combined.values()
+                .stream()
+                .sorted(Comparator.comparingInt(MeetingFrequency::meetings).reversed())
+                .toList();
+    }
+
+    //Results the model could not tie to a user id fall back to the name
+    private static String combineKey(final MeetingFrequency meetingFrequency) {
+
+        return meetingFrequency.userId() == null ? "name:" + meetingFrequency.name() : "id:" + meetingFrequency.userId();
+    }
+}
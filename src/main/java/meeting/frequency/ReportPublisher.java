@@ -0,0 +1,62 @@
+package meeting.frequency;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.service.generate.GenerateDocumentService;
+import meeting.frequency.service.history.HistoryService;
+import meeting.frequency.service.history.model.WeeklyRollup;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import meeting.frequency.service.upload.UploadService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Stores, generates and uploads an already processed result, e.g. the combined report of several channels
+public class ReportPublisher {
+
+    private final GenerateDocumentService generateDocumentService;
+    private final UploadService uploadService;
+    private final HistoryService historyService;
+    private final Metrics metrics;
+    private final Logger logger;
+
+    public ReportPublisher(final GenerateDocumentService generateDocumentService, final UploadService uploadService,
+                           final HistoryService historyService, final Metrics metrics, final Logger logger) {
+
+        this.generateDocumentService = generateDocumentService;
+        this.uploadService = uploadService;
+        this.historyService = historyService;
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    public void publish(final List<MeetingFrequency> meetingFrequencies) throws IOException {
+
+        logger.log(Level.INFO, "Store weekly result...");
+        long started = System.nanoTime();
+        final List<WeeklyRollup> trend = historyService.recordWeek(meetingFrequencies);
+        metrics.recordSince("stage.history", started);
+
+        logger.log(Level.INFO, "Generate file...");
+        started = System.nanoTime();
+        final String fileName = generateDocumentService.documentName();
+        final ByteArrayOutputStream document = new ByteArrayOutputStream();
+        generateDocumentService.writeDocument(meetingFrequencies, trend, document);
+        metrics.recordSince("stage.generate", started);
+        metrics.add("report.bytes", document.size());
+
+        logger.log(Level.INFO, "Upload file...");
+        started = System.nanoTime();
+        final boolean uploadSuccess = uploadService.upload(fileName, document.toByteArray());
+        metrics.recordSince("stage.upload", started);
+
+        if (uploadSuccess) {
+            logger.log(Level.INFO, "Successfully uploaded file : " + fileName);
+        } else {
+            logger.log(Level.SEVERE, "Failed uploaded file : " + fileName);
+            throw new RuntimeException("Failed to upload file");
+        }
+    }
+}
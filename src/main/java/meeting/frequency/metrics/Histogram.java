@@ -0,0 +1,90 @@
+package meeting.frequency.metrics;
+
+import meeting.frequency.metrics.model.HistogramSummary;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//Latencies in fixed buckets, so recording is lock free and percentiles are read from the bucket bounds
+class Histogram {
+
+    //Upper bounds in milliseconds, the last bucket takes everything slower
+    private final static long[] BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator minNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(final long nanos) {
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && millis >= BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        minNanos.accumulate(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    HistogramSummary summary() {
+
+        final long count = this.count.sum();
+
+        if (count == 0) {
+            return new HistogramSummary(0, 0, 0, 0, 0, 0, 0, 0, Map.of());
+        }
+
+        final long[] counts = new long[buckets.length()];
+        final Map<String, Long> nonEmptyBuckets = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] = buckets.get(bucket);
+            if (counts[bucket] > 0) {
+                nonEmptyBuckets.put(bucket < BOUNDS_MS.length ? "<" + BOUNDS_MS[bucket] + "ms" : ">=" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms",
+                        counts[bucket]);
+            }
+        }
+
+        final double maxMs = millis(maxNanos.get());
+
+        return new HistogramSummary(count,
+                millis(totalNanos.sum()),
+                millis(minNanos.get()),
+                millis(totalNanos.sum()) / count,
+                percentile(counts, count, 0.50, maxMs),
+                percentile(counts, count, 0.95, maxMs),
+                percentile(counts, count, 0.99, maxMs),
+                maxMs,
+                nonEmptyBuckets);
+    }
+
+    //Upper bound of the bucket the percentile falls in, never more than the slowest recorded value
+    private static double percentile(final long[] counts, final long count, final double percentile, final double maxMs) {
+
+        final long rank = (long) Math.ceil(percentile * count);
+
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return bucket < BOUNDS_MS.length ? Math.min(BOUNDS_MS[bucket], maxMs) : maxMs;
+            }
+        }
+
+        return maxMs;
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
@@ -0,0 +1,55 @@
+package meeting.frequency.metrics;
+
+import meeting.frequency.metrics.model.HistogramSummary;
+import meeting.frequency.metrics.model.MetricsSummary;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+//Counters and timers of a run, names are dot separated e.g. stage.fetch or http.slack.users.info.rateLimited.
+//Each run creates its own and hands it to every service, so overlapping runs do not mix their numbers
+public class Metrics {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> timers = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final Instant started;
+
+    public Metrics(final Clock clock) {
+        this.clock = clock;
+        this.started = clock.instant();
+    }
+
+    public void increment(final String name) {
+        add(name, 1);
+    }
+
+    public void add(final String name, final long amount) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(amount);
+    }
+
+    public void record(final String name, final long nanos) {
+        timers.computeIfAbsent(name, key -> new Histogram()).record(nanos);
+    }
+
+    //Takes a System.nanoTime() read before the timed work
+    public void recordSince(final String name, final long startNanos) {
+        record(name, System.nanoTime() - startNanos);
+    }
+
+    public MetricsSummary summary() {
+
+        final Map<String, Long> counterSummary = new TreeMap<>();
+        counters.forEach((name, counter) -> counterSummary.put(name, counter.sum()));
+
+        final Map<String, HistogramSummary> timerSummary = new TreeMap<>();
+        timers.forEach((name, histogram) -> timerSummary.put(name, histogram.summary()));
+
+        return new MetricsSummary(started.toString(), Duration.between(started, clock.instant()).toMillis(), counterSummary, timerSummary);
+    }
+}
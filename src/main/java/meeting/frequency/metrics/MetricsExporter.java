@@ -0,0 +1,48 @@
+package meeting.frequency.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.metrics.model.MetricsSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Logs the summary of a run as one JSON line and keeps a copy per run in the metrics directory
+public class MetricsExporter {
+
+    private final Path metricsDirectory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Logger logger;
+
+    public MetricsExporter(final Logger logger) {
+        this(null, logger);
+    }
+
+    public MetricsExporter(final Path metricsDirectory, final Logger logger) {
+        this.metricsDirectory = metricsDirectory;
+        this.logger = logger;
+    }
+
+    public String toJson(final MetricsSummary metricsSummary) throws IOException {
+        return objectMapper.writeValueAsString(metricsSummary);
+    }
+
+    //A failing export never fails the run
+    public void export(final MetricsSummary metricsSummary) {
+
+        try {
+            final String json = toJson(metricsSummary);
+            logger.log(Level.INFO, "Run metrics : %s".formatted(json));
+
+            if (metricsDirectory != null) {
+                Files.createDirectories(metricsDirectory);
+                final Path file = metricsDirectory.resolve(metricsSummary.started().replace(':', '-') + ".json");
+                Files.writeString(file, json);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not export run metrics : %s".formatted(e.getMessage()));
+        }
+    }
+}
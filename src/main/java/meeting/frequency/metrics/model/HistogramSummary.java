@@ -0,0 +1,15 @@
+package meeting.frequency.metrics.model;
+
+import java.util.Map;
+
+//Times in milliseconds, percentiles are the upper bound of the bucket they fall in
+public record HistogramSummary(long count,
+                               double totalMs,
+                               double minMs,
+                               double meanMs,
+                               double p50Ms,
+                               double p95Ms,
+                               double p99Ms,
+                               double maxMs,
+                               Map<String, Long> buckets) {
+}
@@ -0,0 +1,9 @@
+package meeting.frequency.metrics.model;
+
+import java.util.Map;
+
+public record MetricsSummary(String started, //ISO-8601
+                             long durationMs,
+                             Map<String, Long> counters,
+                             Map<String, HistogramSummary> timers) {
+}
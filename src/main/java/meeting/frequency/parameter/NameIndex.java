@@ -0,0 +1,184 @@
+package meeting.frequency.parameter;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+//Fuzzy lookup of roster names. Names are folded (no diacritics, case or punctuation) and split into tokens,
+//candidates are found through a trigram index and scored on shared tokens and edit distance
+final class NameIndex {
+
+    private final static Pattern MARKS = Pattern.compile("\\p{M}+");
+    private final static Pattern NON_LETTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    //"Peo Stand" for "Peo Strand" scores 0.9, "Jon Doe" for "John Doe" 0.875
+    private final static double MATCH_THRESHOLD = 0.85;
+    //The best match has to beat the best match at any other office by this much
+    private final static double AMBIGUITY_MARGIN = 0.1;
+    //A name contained in the other, e.g. "Ulrika" or "Anna Maria Öberg" for "Anna Öberg"
+    private final static double SUBSET_SCORE = 0.9;
+    private final static int MAX_CANDIDATES = 20;
+
+    private record Entry(Office office, Set<String> tokens, String sortedTokens) {}
+
+    private final List<Entry> entries = new ArrayList<>();
+    //Folded name to entry, -1 when two people at different offices fold to the same name
+    private final Map<String, Integer> entryByFoldedName = new HashMap<>();
+    private final Map<String, List<Integer>> entriesByTrigram = new HashMap<>();
+
+    NameIndex(final Map<String, Office> nameToOffice) {
+
+        nameToOffice.forEach((name, office) -> {
+            final String folded = fold(name);
+            if (folded.isEmpty()) {
+                return;
+            }
+
+            final int entryId = entries.size();
+            final Set<String> tokens = tokens(folded);
+            entries.add(new Entry(office, tokens, sortedTokens(tokens)));
+
+            entryByFoldedName.merge(folded, entryId,
+                    (existing, added) -> existing >= 0 && entries.get(existing).office() == office ? existing : -1);
+
+            for (String trigram : trigrams(tokens)) {
+                entriesByTrigram.computeIfAbsent(trigram, key -> new ArrayList<>()).add(entryId);
+            }
+        });
+    }
+
+    Optional<Office> match(final String name) {
+
+        final String folded = fold(name);
+        if (folded.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final Integer exact = entryByFoldedName.get(folded);
+        if (exact != null) {
+            return exact < 0 ? Optional.empty() : Optional.of(entries.get(exact).office());
+        }
+
+        final Set<String> tokens = tokens(folded);
+        final String sortedTokens = sortedTokens(tokens);
+
+        final Map<Office, Double> bestScoreByOffice = new EnumMap<>(Office.class);
+
+        for (int entryId : candidates(tokens)) {
+            final Entry entry = entries.get(entryId);
+            bestScoreByOffice.merge(entry.office(), score(tokens, sortedTokens, entry), Math::max);
+        }
+
+        final List<Map.Entry<Office, Double>> ranked = bestScoreByOffice.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Office, Double>comparingByValue().reversed())
+                .toList();
+
+        if (ranked.isEmpty() || ranked.get(0).getValue() < MATCH_THRESHOLD) {
+            return Optional.empty();
+        }
+
+        if (ranked.size() > 1 && ranked.get(0).getValue() - ranked.get(1).getValue() < AMBIGUITY_MARGIN) {
+            return Optional.empty();
+        }
+
+        return Optional.of(ranked.get(0).getKey());
+    }
+
+    //Entries sharing the most trigrams with the name, so only a handful are scored however long the roster is
+    private List<Integer> candidates(final Set<String> tokens) {
+
+        final Map<Integer, Integer> sharedTrigrams = new HashMap<>();
+
+        for (String trigram : trigrams(tokens)) {
+            for (int entryId : entriesByTrigram.getOrDefault(trigram, List.of())) {
+                sharedTrigrams.merge(entryId, 1, Integer::sum);
+            }
+        }
+
+        return sharedTrigrams.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .limit(MAX_CANDIDATES)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static double score(final Set<String> tokens, final String sortedTokens, final Entry entry) {
+
+        final double tokenScore = entry.tokens().containsAll(tokens) || tokens.containsAll(entry.tokens())
+                ? SUBSET_SCORE
+                : 0;
+
+        final int longest = Math.max(sortedTokens.length(), entry.sortedTokens().length());
+        final double editScore = 1 - (double) editDistance(sortedTokens, entry.sortedTokens()) / longest;
+
+        return Math.max(tokenScore, editScore);
+    }
+
+    static String fold(final String name) {
+
+        final String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        final String withoutMarks = MARKS.matcher(decomposed).replaceAll("");
+
+        return NON_LETTERS.matcher(withoutMarks).replaceAll(" ").strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokens(final String folded) {
+        return Set.copyOf(Arrays.asList(folded.split(" ")));
+    }
+
+    //Order of first and last name does not matter
+    private static String sortedTokens(final Set<String> tokens) {
+        return String.join(" ", tokens.stream().sorted().toList());
+    }
+
+    //Padded so short names and the start and end of each token get trigrams of their own
+    private static Set<String> trigrams(final Set<String> tokens) {
+
+        final Set<String> trigrams = new HashSet<>();
+
+        for (String token : tokens) {
+            final String padded = "$" + token + "$";
+            for (int start = 0; start + 3 <= padded.length(); start++) {
+                trigrams.add(padded.substring(start, start + 3));
+            }
+        }
+
+        return trigrams;
+    }
+
+    //Levenshtein distance with two rows
+    private static int editDistance(final String first, final String second) {
+
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+
+        for (int column = 0; column <= second.length(); column++) {
+            previous[column] = column;
+        }
+
+        for (int row = 1; row <= first.length(); row++) {
+            current[0] = row;
+            for (int column = 1; column <= second.length(); column++) {
+                final int substitution = first.charAt(row - 1) == second.charAt(column - 1) ? 0 : 1;
+                current[column] = Math.min(Math.min(current[column - 1] + 1, previous[column] + 1),
+                        previous[column - 1] + substitution);
+            }
+
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[second.length()];
+    }
+}
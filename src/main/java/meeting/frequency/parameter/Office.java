@@ -1,6 +1,11 @@
 package meeting.frequency.parameter;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public enum Office{
     BASALT("Basalt"),
@@ -14,13 +19,36 @@ public enum Office{
 
     public final String rawName;
 
+    private final static Map<String, Office> BY_RAW_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(office -> office.rawName, Function.identity()));
+
     Office(final String name) {this.rawName = name;}
 
     public static Office convertToOffice(final String name){
-        return Arrays.stream(Office.values())
-                .filter(office -> office.rawName.equals(name))
-                .findAny()
-                .orElseThrow(() -> new RuntimeException("could not find name of office : " + name));
+        final Office office = name == null ? null : BY_RAW_NAME.get(name);
+
+        if (office == null) {
+            throw new RuntimeException("could not find name of office : " + name);
+        }
+
+        return office;
+    }
+
+    //Office named in free text such as a Slack title, e.g. "Account Manager, Göteborg" or "Sales Gothenburg".
+    //Empty when no office or more than one is named
+    public static Optional<Office> findIn(final String text){
+
+        if (text == null) {
+            return Optional.empty();
+        }
+
+        final List<String> words = List.of(NameIndex.fold(text).split(" "));
+
+        final List<Office> named = Arrays.stream(values())
+                .filter(office -> words.contains(NameIndex.fold(office.rawName)) || words.contains(NameIndex.fold(office.name())))
+                .toList();
+
+        return named.size() == 1 ? Optional.of(named.get(0)) : Optional.empty();
     }
 
     public String getRawName(){
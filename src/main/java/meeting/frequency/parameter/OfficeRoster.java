@@ -0,0 +1,163 @@
+package meeting.frequency.parameter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+//Immutable index of who works at which office, built once so a lookup is a single hash map read
+public final class OfficeRoster {
+
+    private final static Pattern WHITESPACE = Pattern.compile("\\s+");
+    private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<String, Office> officeByName;
+    private final Map<Office, List<String>> peopleByOffice;
+    private final NameIndex nameIndex;
+    private final String version;
+
+    private OfficeRoster(final Map<String, Office> officeByName, final Map<Office, List<String>> peopleByOffice,
+                         final NameIndex nameIndex, final String version) {
+        this.officeByName = officeByName;
+        this.peopleByOffice = peopleByOffice;
+        this.nameIndex = nameIndex;
+        this.version = version;
+    }
+
+    public static OfficeRoster of(final Map<String, Office> nameToOffice) {
+
+        final Map<String, Office> officeByName = new HashMap<>(nameToOffice.size() * 2);
+        final Map<Office, List<String>> peopleByOffice = new EnumMap<>(Office.class);
+
+        nameToOffice.forEach((name, office) -> {
+            final Office previous = officeByName.putIfAbsent(normalize(name), office);
+            if (previous != null && previous != office) {
+                throw new IllegalStateException("%s is listed at both %s and %s".formatted(name, previous.getRawName(), office.getRawName()));
+            }
+            peopleByOffice.computeIfAbsent(office, key -> new ArrayList<>()).add(name);
+        });
+
+        peopleByOffice.replaceAll((office, people) -> List.copyOf(people));
+
+        return new OfficeRoster(Map.copyOf(officeByName), Collections.unmodifiableMap(peopleByOffice),
+                new NameIndex(officeByName), version(officeByName));
+    }
+
+    //Office as key and the names of the people at that office, e.g. {"Göteborg": ["Peo Strand", ...]}
+    public static OfficeRoster parse(final String json) {
+
+        try {
+            final Map<String, List<String>> officeToNames = OBJECT_MAPPER.readValue(json, new TypeReference<>() {});
+
+            //Keeps the order of the roster in people(office)
+            final Map<String, Office> nameToOffice = new LinkedHashMap<>();
+            officeToNames.forEach((office, names) -> {
+                final Office parsedOffice = Office.convertToOffice(office);
+                names.forEach(name -> {
+                    final Office previous = nameToOffice.put(name, parsedOffice);
+                    if (previous != null && previous != parsedOffice) {
+                        throw new IllegalStateException("%s is listed at both %s and %s".formatted(name, previous.getRawName(), office));
+                    }
+                });
+            });
+
+            return of(nameToOffice);
+        } catch (IOException e) {
+            throw new IllegalStateException("Office roster is not a map of office to names", e);
+        }
+    }
+
+    public static OfficeRoster load(final Path file) {
+
+        try {
+            return parse(Files.readString(file));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read office roster " + file, e);
+        }
+    }
+
+    public Optional<Office> officeOf(final String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(officeByName.get(normalize(name)));
+    }
+
+    //Exact match first, then diacritics, middle names, a first name on its own and typos.
+    //Empty when nothing is close enough or when people at different offices are about as close
+    public Optional<Office> match(final String name) {
+
+        if (name == null) {
+            return Optional.empty();
+        }
+
+        final Optional<Office> office = officeOf(name);
+
+        return office.isPresent() ? office : nameIndex.match(name);
+    }
+
+    public List<String> people(final Office office) {
+        return peopleByOffice.getOrDefault(office, List.of());
+    }
+
+    public int size() {
+        return officeByName.size();
+    }
+
+    public String version() {
+        return version;
+    }
+
+    //Same for the same names and offices whatever the order, so matches remembered between runs can be checked against it.
+    //A digest of the sorted entries, a sum of hashes stays the same when two people swap offices with names of equal length
+    private static String version(final Map<String, Office> officeByName) {
+
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            officeByName.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> {
+                        update(digest, entry.getKey());
+                        update(digest, entry.getValue().name());
+                    });
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Length prefixed so ("ab", "c") and ("a", "bc") do not hash the same
+    private static void update(final MessageDigest digest, final String value) {
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    //Case, surrounding and repeated whitespace and composed/decomposed letters (ö vs o + ¨) do not matter
+    static String normalize(final String name) {
+
+        final String composed = Normalizer.normalize(name, Normalizer.Form.NFC);
+
+        return WHITESPACE.matcher(composed.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,39 @@
+package meeting.frequency.parameter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.function.Supplier;
+
+//Roster kept outside the deployment, read again only when the file has changed since it was last read
+public class OfficeRosterFile implements Supplier<OfficeRoster> {
+
+    private final Path file;
+
+    private FileTime loadedModified;
+    private OfficeRoster loadedRoster;
+
+    public OfficeRosterFile(final Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized OfficeRoster get() {
+
+        final FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read office roster " + file, e);
+        }
+
+        if (loadedRoster == null || !modified.equals(loadedModified)) {
+            loadedRoster = OfficeRoster.load(file);
+            loadedModified = modified;
+        }
+
+        return loadedRoster;
+    }
+}
@@ -1,9 +1,47 @@
 package meeting.frequency.parameter;
 
-import java.util.Map;
+import java.nio.file.Path;
+import java.util.List;
 
 public interface ParameterService {
 
-    Map<String, Office> personToOfficeMapping();
+    //Read once per run, lookups are hash map reads
+    OfficeRoster officeRoster();
+
+    //Id of the custom Slack profile field that holds the office, or "title" for the profile title.
+    //Empty when offices only come from the roster
+    String officeProfileField();
+
+    int officeProfileCacheHours();
+
+    int userLookupParallelism();
+
+    int bulkUserLookupThreshold();
+
+    //conversations.replies calls in flight at the same time
+    int threadReplyParallelism();
+
+    Path cacheDirectory();
+
+    Path messageStoreDirectory();
+
+    Path historyDirectory();
+
+    //A JSON summary of timings, request counts and token usage is written here after every run
+    Path metricsDirectory();
+
+    int trendWeeks();
+
+    int openAIParallelism();
+
+    //Empty when only the channel in the Slack secrets is reported
+    List<SlackChannel> slackChannels();
+
+    int channelParallelism();
+
+    //Point the clients at local stand-in servers, e.g. when timing full runs offline
+    String slackBaseUrl();
+
+    String openAIBaseUrl();
 
 }
@@ -1,35 +1,234 @@
 package meeting.frequency.parameter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.Lazy;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class ParameterServiceImpl implements ParameterService{
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final static String SLACK_USER_LOOKUP_PARALLELISM = "SlackUserLookupParallelism";
+    private final static int DEFAULT_USER_LOOKUP_PARALLELISM = 8;
+    private final static String SLACK_BULK_USER_LOOKUP_THRESHOLD = "SlackBulkUserLookupThreshold";
+    private final static int DEFAULT_BULK_USER_LOOKUP_THRESHOLD = 50;
+    private final static String SLACK_THREAD_REPLY_PARALLELISM = "SlackThreadReplyParallelism";
+    private final static int DEFAULT_THREAD_REPLY_PARALLELISM = 4;
+    private final static String OFFICE_ROSTER_FILE = "OfficeRosterFile";
+    private final static String OFFICE_PROFILE_FIELD = "SlackOfficeProfileField";
+    private final static String OFFICE_PROFILE_CACHE_HOURS = "SlackOfficeProfileCacheHours";
+    //A profile updated during onboarding is picked up by the next day's runs
+    private final static int DEFAULT_OFFICE_PROFILE_CACHE_HOURS = 24;
+    private final static String CACHE_DIRECTORY = "CacheDirectory";
+    private final static String MESSAGE_STORE_DIRECTORY = "MessageStoreDirectory";
+    private final static String HISTORY_DIRECTORY = "HistoryDirectory";
+    private final static String METRICS_DIRECTORY = "MetricsDirectory";
+    private final static String TREND_WEEKS = "TrendWeeks";
+    //A quarter
+    private final static int DEFAULT_TREND_WEEKS = 13;
+    private final static String OPENAI_PARALLELISM = "OpenAIParallelism";
+    private final static int DEFAULT_OPENAI_PARALLELISM = 4;
+    private final static String SLACK_CHANNELS = "SlackChannels";
+    private final static String CHANNEL_PARALLELISM = "ChannelParallelism";
+    private final static int DEFAULT_CHANNEL_PARALLELISM = 3;
+    private final static String SLACK_BASE_URL = "SlackBaseUrl";
+    private final static String DEFAULT_SLACK_BASE_URL = "https://slack.com/api";
+    private final static String OPENAI_BASE_URL = "OpenAIBaseUrl";
+    private final static String DEFAULT_OPENAI_BASE_URL = "https://api.openai.com/v1";
+    private final static Logger LOGGER = Logger.getLogger(ParameterServiceImpl.class.getName());
+
+    //The embedded roster is parsed once, on first use
+    private final Lazy<OfficeRoster> embeddedRoster = Lazy.of(() -> OfficeRoster.parse(this.listOfPeopleInOffices));
+    private final Map<Path, OfficeRosterFile> rosterFiles = new ConcurrentHashMap<>();
+    private final AtomicBoolean defaultCacheDirectoryUsed = new AtomicBoolean();
+
+    //OfficeRosterFile points at a JSON file in the same format as the embedded list, so the roster can change without a deployment
+    @Override
+    public OfficeRoster officeRoster() {
+
+        final String officeRosterFile = System.getenv(OFFICE_ROSTER_FILE);
+
+        if (officeRosterFile == null || officeRosterFile.isBlank()) {
+            return embeddedRoster.get();
+        }
+
+        return rosterFiles.computeIfAbsent(Path.of(officeRosterFile.trim()), OfficeRosterFile::new).get();
+    }
+
+    @Override
+    public String officeProfileField() {
+
+        final String officeProfileField = System.getenv(OFFICE_PROFILE_FIELD);
+
+        return officeProfileField == null ? "" : officeProfileField.trim();
+    }
+
+    @Override
+    public int officeProfileCacheHours() {
+
+        return readIntOrDefault(OFFICE_PROFILE_CACHE_HOURS, DEFAULT_OFFICE_PROFILE_CACHE_HOURS);
+    }
+
+    @Override
+    public int userLookupParallelism() {
+
+        return readPositiveIntOrDefault(SLACK_USER_LOOKUP_PARALLELISM, DEFAULT_USER_LOOKUP_PARALLELISM);
+    }
+
+    @Override
+    public int bulkUserLookupThreshold() {
+
+        return readIntOrDefault(SLACK_BULK_USER_LOOKUP_THRESHOLD, DEFAULT_BULK_USER_LOOKUP_THRESHOLD);
+    }
+
+    @Override
+    public int threadReplyParallelism() {
+
+        return readPositiveIntOrDefault(SLACK_THREAD_REPLY_PARALLELISM, DEFAULT_THREAD_REPLY_PARALLELISM);
+    }
+
+    @Override
+    public Path cacheDirectory() {
+
+        final String cacheDirectory = System.getenv(CACHE_DIRECTORY);
+
+        if (cacheDirectory == null || cacheDirectory.isBlank()) {
+            //Only writable location on the function host, but it is emptied when the host restarts
+            final Path temporaryDirectory = Path.of(System.getProperty("java.io.tmpdir"), "meeting-frequency");
+
+            if (!defaultCacheDirectoryUsed.getAndSet(true)) {
+                LOGGER.log(Level.WARNING, ("%s is not set, using %s. Caches, the message store and the trend history are lost " +
+                        "when the host restarts, set it to a persistent directory e.g. under /home").formatted(CACHE_DIRECTORY, temporaryDirectory));
+            }
+
+            return temporaryDirectory;
+        }
+
+        return Path.of(cacheDirectory);
+    }
+
+    @Override
+    public Path messageStoreDirectory() {
+
+        final String messageStoreDirectory = System.getenv(MESSAGE_STORE_DIRECTORY);
+
+        if (messageStoreDirectory == null || messageStoreDirectory.isBlank()) {
+            return cacheDirectory().resolve("messages");
+        }
+
+        return Path.of(messageStoreDirectory);
+    }
+
+    @Override
+    public Path historyDirectory() {
+
+        final String historyDirectory = System.getenv(HISTORY_DIRECTORY);
+
+        if (historyDirectory == null || historyDirectory.isBlank()) {
+            return cacheDirectory().resolve("history");
+        }
+
+        return Path.of(historyDirectory);
+    }
+
+    @Override
+    public Path metricsDirectory() {
+
+        final String metricsDirectory = System.getenv(METRICS_DIRECTORY);
+
+        if (metricsDirectory == null || metricsDirectory.isBlank()) {
+            return cacheDirectory().resolve("metrics");
+        }
+
+        return Path.of(metricsDirectory);
+    }
+
+    @Override
+    public int trendWeeks() {
+
+        return readPositiveIntOrDefault(TREND_WEEKS, DEFAULT_TREND_WEEKS);
+    }
+
+    @Override
+    public int openAIParallelism() {
+
+        return readPositiveIntOrDefault(OPENAI_PARALLELISM, DEFAULT_OPENAI_PARALLELISM);
+    }
 
     @Override
-    public Map<String, Office> personToOfficeMapping() {
+    public List<SlackChannel> slackChannels() {
+
+        final String slackChannels = System.getenv(SLACK_CHANNELS);
+
+        if (slackChannels == null || slackChannels.isBlank()) {
+            return List.of();
+        }
+
+        try {
+            return SlackChannel.parse(slackChannels);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Parameter %s is not valid : %s".formatted(SLACK_CHANNELS, e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public int channelParallelism() {
+
+        return readPositiveIntOrDefault(CHANNEL_PARALLELISM, DEFAULT_CHANNEL_PARALLELISM);
+    }
+
+    @Override
+    public String slackBaseUrl() {
+
+        return readUrlOrDefault(SLACK_BASE_URL, DEFAULT_SLACK_BASE_URL);
+    }
+
+    @Override
+    public String openAIBaseUrl() {
+
+        return readUrlOrDefault(OPENAI_BASE_URL, DEFAULT_OPENAI_BASE_URL);
+    }
+
+    private String readUrlOrDefault(final String name, final String defaultValue) {
+
+        final String value = System.getenv(name);
+
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        //Paths are appended to the base, e.g. <base>/conversations.history
+        return value.trim().replaceAll("/+$", "");
+    }
+
+    //Thread pools and semaphores cannot be sized with 0 or less
+    private int readPositiveIntOrDefault(final String name, final int defaultValue) {
+
+        final int value = readIntOrDefault(name, defaultValue);
+
+        if (value < 1) {
+            throw new IllegalStateException("Parameter %s must be at least 1 : %d".formatted(name, value));
+        }
+
+        return value;
+    }
+
+    private int readIntOrDefault(final String name, final int defaultValue) {
+
+        final String value = System.getenv(name);
+
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
 
         try {
-            //Returns office as key and list of names of people belonging to that office
-            final Map<String, List<String>> officeToNamesMapping = objectMapper.readValue(listOfPeopleInOffices, new TypeReference<>() {});
-
-            return officeToNamesMapping.entrySet()
-                    .stream()
-                    .flatMap(officeToNamesEntries ->
-                            officeToNamesEntries.getValue()
-                                    .stream()
-                                    .map(name -> Map.entry(name, Office.convertToOffice(officeToNamesEntries.getKey())))
-                    )
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Parameter %s is not a number : %s".formatted(name, value), e);
         }
     }
 
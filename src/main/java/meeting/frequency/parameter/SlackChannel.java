@@ -0,0 +1,58 @@
+package meeting.frequency.parameter;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+//A channel to read meeting posts from and the channel its report is uploaded to
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SlackChannel(String name,
+                           String channelId,
+                           String sendToChannelId) {
+
+    //The name is a directory of its own under the history directory, so it may not be "..", hold a "/" or be empty
+    private final static Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,79}");
+    private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    //e.g. [{"name": "sales-stockholm", "channelId": "C0123", "sendToChannelId": "C0456"}]
+    public static List<SlackChannel> parse(final String json) {
+
+        final List<SlackChannel> slackChannels;
+        try {
+            slackChannels = OBJECT_MAPPER.readValue(json, new TypeReference<List<SlackChannel>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Slack channels is not a list of channels", e);
+        }
+
+        final Set<String> names = new HashSet<>();
+        final Set<String> channelIds = new HashSet<>();
+
+        for (SlackChannel slackChannel : slackChannels) {
+            if (slackChannel.name() == null || !NAME.matcher(slackChannel.name()).matches()) {
+                throw new IllegalStateException("Slack channel name must be letters, digits, '.', '_' or '-' : %s"
+                        .formatted(slackChannel.name()));
+            }
+            if (isBlank(slackChannel.channelId()) || isBlank(slackChannel.sendToChannelId())) {
+                throw new IllegalStateException("Slack channel %s needs a channelId and a sendToChannelId"
+                        .formatted(slackChannel.name()));
+            }
+            //A second entry would silently replace the first one's report and history
+            if (!names.add(slackChannel.name()) || !channelIds.add(slackChannel.channelId())) {
+                throw new IllegalStateException("Slack channel %s (%s) is listed twice"
+                        .formatted(slackChannel.name(), slackChannel.channelId()));
+            }
+        }
+
+        return List.copyOf(slackChannels);
+    }
+
+    private static boolean isBlank(final String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -2,4 +2,8 @@ package meeting.frequency.secret.model;
 
 public record SlackSecrets(String token, String channelId, String sendToChannelId) {
 
+    public SlackSecrets forChannel(final String channelId, final String sendToChannelId) {
+        return new SlackSecrets(token, channelId, sendToChannelId);
+    }
+
 }
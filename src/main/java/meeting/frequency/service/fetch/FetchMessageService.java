@@ -8,4 +8,8 @@ import java.util.List;
 public interface FetchMessageService {
 
     List<Message> fetchMessages() throws URISyntaxException;
+
+    //Keeps what was looked up while fetching for the next run, called once when the run ends
+    default void save() {
+    }
 }
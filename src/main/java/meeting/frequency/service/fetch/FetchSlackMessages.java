@@ -1,117 +1,220 @@
 package meeting.frequency.service.fetch;
 
+import meeting.frequency.metrics.Metrics;
 import meeting.frequency.parameter.Office;
+import meeting.frequency.parameter.OfficeRoster;
 import meeting.frequency.parameter.ParameterService;
 import meeting.frequency.secret.SecretService;
 import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.fetch.office.OfficeResolver;
+import meeting.frequency.service.fetch.office.ProfileOfficeResolver;
+import meeting.frequency.service.fetch.store.MessageStore;
+import meeting.frequency.service.fetch.store.StoredMessageHistory;
+import meeting.frequency.service.fetch.user.AdaptiveUserResolver;
+import meeting.frequency.service.fetch.user.BulkUserResolver;
+import meeting.frequency.service.fetch.user.SlackUserResolver;
+import meeting.frequency.service.fetch.user.UserDirectory;
+import meeting.frequency.service.fetch.user.UserResolver;
 import meeting.frequency.service.integration.slack.SlackHttpClient;
 import meeting.frequency.service.integration.slack.pojo.MessagesItem;
-import meeting.frequency.service.integration.slack.pojo.SlackHistoryResponse;
-import meeting.frequency.service.integration.slack.pojo.user.SlackUserInfoResponse;
 import meeting.frequency.service.integration.slack.pojo.user.User;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FetchSlackMessages implements FetchMessageService{
 
-    private final SlackHttpClient slackHttpClient;
-    private final static int DAYS_TO_READ = 7;
-    private final Map<String, Office> nameCorrespondingOffice;
+    private final MessageHistory messageHistory;
+    private final UserResolver userResolver;
+    //Length of the report window, ending when the run starts
+    public final static int DAYS_TO_READ = 7;
+    private final int resolveBatchSize;
+    private final Supplier<OfficeRoster> officeRoster;
+    private final OfficeDirectory officeDirectory;
+    private final Metrics metrics;
     private final Logger logger;
 
-
-    public FetchSlackMessages(final SecretService secretService,
-                              final ParameterService parameterService,
+    //The roster is read when the messages are matched to offices, so a changed roster file is used by the next run
+    public FetchSlackMessages(final MessageHistory messageHistory,
+                              final UserResolver userResolver,
+                              final int resolveBatchSize,
+                              final Supplier<OfficeRoster> officeRoster,
+                              final OfficeDirectory officeDirectory,
+                              final Metrics metrics,
                               final Logger logger) {
 
-        this.slackHttpClient = new SlackHttpClient(secretService, logger);
-        this.nameCorrespondingOffice = parameterService.personToOfficeMapping();
+        this.messageHistory = messageHistory;
+        this.userResolver = userResolver;
+        this.resolveBatchSize = resolveBatchSize;
+        this.officeRoster = officeRoster;
+        this.officeDirectory = officeDirectory;
+        this.metrics = metrics;
         this.logger = logger;
+    }
 
+    //The channel in the Slack secrets, with its history kept in the message store.
+    //Full resolve batches are as large as the bulk lookup threshold and continue the one users.list sweep of the run
+    public static FetchSlackMessages fetchSlackMessages(final SecretService secretService,
+                                                        final ParameterService parameterService,
+                                                        final Metrics metrics,
+                                                        final Logger logger) {
+
+        final SlackHttpClient slackHttpClient = new SlackHttpClient(secretService, parameterService, metrics, logger);
+
+        return new FetchSlackMessages(
+                new StoredMessageHistory(
+                        new ThreadedMessageHistory(slackHttpClient, parameterService.threadReplyParallelism(), metrics, logger),
+                        new MessageStore(parameterService.messageStoreDirectory(), slackHttpClient.channelId(),
+                                Duration.ofDays(7L * parameterService.trendWeeks()), logger), logger),
+                userDirectory(slackHttpClient, parameterService, logger),
+                parameterService.bulkUserLookupThreshold(),
+                parameterService::officeRoster,
+                officeDirectory(slackHttpClient, parameterService, metrics, logger),
+                metrics,
+                logger);
     }
 
-    public FetchSlackMessages(final SlackHttpClient slackHttpClient,
-                              final Map<String, Office> nameCorrespondingOffice,
-                              final Logger logger) {
+    //Users are the same in every channel of the workspace, so one directory can be shared between channels
+    public static UserResolver userDirectory(final SlackHttpClient slackHttpClient,
+                                             final ParameterService parameterService,
+                                             final Logger logger) {
+
+        return new UserDirectory(
+                new AdaptiveUserResolver(
+                        new BulkUserResolver(slackHttpClient, logger),
+                        new SlackUserResolver(slackHttpClient, parameterService.userLookupParallelism(), logger),
+                        parameterService.bulkUserLookupThreshold()),
+                parameterService.cacheDirectory(), logger);
+    }
 
-        this.slackHttpClient = slackHttpClient;
-        this.nameCorrespondingOffice = nameCorrespondingOffice;
-        this.logger = logger;
+    //Offices come from the Slack profile when SlackOfficeProfileField is set, the roster is the fallback
+    public static OfficeDirectory officeDirectory(final SlackHttpClient slackHttpClient,
+                                                  final ParameterService parameterService,
+                                                  final Metrics metrics,
+                                                  final Logger logger) {
+
+        if (parameterService.officeProfileField().isEmpty()) {
+            return new OfficeDirectory(OfficeResolver.none(), parameterService.cacheDirectory(), metrics, logger);
+        }
+
+        return new OfficeDirectory(
+                new ProfileOfficeResolver(slackHttpClient, parameterService.officeProfileField(), parameterService.cacheDirectory(),
+                        Duration.ofHours(parameterService.officeProfileCacheHours()), parameterService.userLookupParallelism(),
+                        Clock.systemUTC(), metrics, logger),
+                parameterService.cacheDirectory(), metrics, logger);
     }
 
     @Override
     public List<Message> fetchMessages(){
 
-        final SlackHistoryResponse slackHistoryResponse = slackHttpClient.fetchSlackHistory(
-                ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).minusDays(DAYS_TO_READ).toEpochSecond()
-        );
-
-        final Map<String, List<MessagesItem>> userIdToMessagesMap = slackHistoryResponse.messages()
-                .stream()
-                .filter(messagesItem -> messagesItem.blocks() != null) //To filter out messages like "xxx have joined the channel"
-                .collect(Collectors.groupingBy(MessagesItem::user));
+        final MessageAggregator messageAggregator = new MessageAggregator();
+        final List<CompletableFuture<Map<String, User>>> resolvedBatches = new ArrayList<>();
+        final Set<String> unresolvedUserIds = new HashSet<>();
+        final ExecutorService resolveExecutor = Executors.newSingleThreadExecutor();
+
+        try {
+            //One pass over the pages as they arrive, only the text of each message is kept.
+            //Users are looked up in batches while the next pages are still being read
+            try (Stream<MessagesItem> history = messageHistory.messagesSince(
+                    ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).minusDays(DAYS_TO_READ).toEpochSecond())) {
+
+                history.filter(messagesItem -> messagesItem.blocks() != null) //To filter out messages like "xxx have joined the channel"
+                        .forEach(messagesItem -> {
+                            if (messageAggregator.add(messagesItem.user(), messagesItem.text())) {
+                                unresolvedUserIds.add(messagesItem.user());
+                            }
+
+                            if (unresolvedUserIds.size() >= resolveBatchSize) {
+                                resolvedBatches.add(resolveAsync(unresolvedUserIds, resolveExecutor));
+                                unresolvedUserIds.clear();
+                            }
+                        });
+            }
+
+            if (!unresolvedUserIds.isEmpty()) {
+                resolvedBatches.add(resolveAsync(unresolvedUserIds, resolveExecutor));
+            }
+
+            //Counted while aggregating, recorded once per run
+            metrics.add("messages.fetched", messageAggregator.messages());
+            metrics.add("users.posting", messageAggregator.users());
+
+            final List<User> users = resolvedBatches.stream()
+                    .map(FetchSlackMessages::join)
+                    .flatMap(resolvedUsers -> resolvedUsers.values().stream())
+                    .filter(user -> !user.equals(User.EMPTY_USER()))
+                    .toList();
 
-        final Map<String, List<MessagesItem>> nameToMessagesMap = processUsersConcurrently(userIdToMessagesMap.keySet())
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getValue, idToNameMap -> userIdToMessagesMap.get(idToNameMap.getKey())));
+            //Matched by user id, from the profile or the roster, so earlier runs' lookups are reused
+            final Map<String, Office> officeByUserId = officeDirectory.officesOf(users, officeRoster.get());
 
-        return nameToMessagesMap.entrySet()
-                .stream()
-                .map(this::processMessage)
-                .toList();
+            return users.stream()
+                    .map(user -> processMessage(user, messageAggregator.messagesOf(user.id()), officeByUserId.get(user.id())))
+                    .toList();
+        } finally {
+            resolveExecutor.shutdown();
+        }
     }
 
-    private Message processMessage(final Map.Entry<String, List<MessagesItem>> nameToMessages) {
+    @Override
+    public void save() {
 
+        userResolver.save();
+        officeDirectory.save();
+    }
 
-        if(!nameCorrespondingOffice.containsKey(nameToMessages.getKey())){
-            logger.log(Level.WARNING, "Could not match %s to any office%n", nameToMessages.getKey());
-        }
+    private CompletableFuture<Map<String, User>> resolveAsync(final Set<String> userIds, final ExecutorService executor) {
 
-        return new Message(nameToMessages.getKey(),
-                nameCorrespondingOffice.getOrDefault(nameToMessages.getKey(), Office.STOCKHOLM).getRawName(),
-                extractRawMessages(nameToMessages.getValue()));
-    }
+        final Set<String> batch = Set.copyOf(userIds);
 
-    private List<String> extractRawMessages(final List<MessagesItem> messagesItems) {
-        return messagesItems.stream()
-                .map(MessagesItem::text)
-                .toList();
+        return CompletableFuture.supplyAsync(() -> {
+            final long started = System.nanoTime();
+            try {
+                final Map<String, User> resolvedUsers = userResolver.resolveUsers(batch);
+                metrics.add("users.resolved", resolvedUsers.size());
+                return resolvedUsers;
+            } finally {
+                metrics.recordSince("stage.resolveUsers", started);
+            }
+        }, executor);
     }
 
-    private Map<String, String> processUsersConcurrently(final Set<String> inputSet) {
+    private static Map<String, User> join(final CompletableFuture<Map<String, User>> resolvedBatch) {
 
-            return inputSet.stream()
-                    .map(slackHttpClient::fetchUserInformation)
-                    .map(SlackUserInfoResponse::user)
-                    .filter(user -> !user.equals(User.EMPTY_USER()))
-                    .collect(Collectors.toMap(User::id, User::realName));
+        try {
+            return resolvedBatch.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
         }
-}
-
+    }
 
-    //Uses virtual Threads. Not available in Java 17
-    /*
-    private Map<String, String> processUsersConcurrently(final Set<String> inputSet) {
-        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            List<CompletableFuture<SlackUserInfoResponse>> futures = inputSet.stream()
-                    .map(userId -> CompletableFuture.supplyAsync(() -> slackHttpClient.fetchUserInformation(userId), executor))
-                    .toList();
+    private Message processMessage(final User user, final List<String> messages, final Office office) {
 
-            return futures.stream()
-                    .map(CompletableFuture::join)
-                    .map(SlackUserInfoResponse::user)
-                    .filter(user -> !user.equals(User.EMPTY_USER()))
-                    .collect(Collectors.toMap(User::id, User::realName));
+        if(office == null){
+            logger.log(Level.WARNING, "Could not match %s to any office".formatted(user.realName()));
         }
-    }
 
-     */
+        return new Message(user.id(), user.realName(),
+                office == null ? Office.STOCKHOLM.getRawName() : office.getRawName(),
+                messages);
+    }
+}
@@ -0,0 +1,98 @@
+package meeting.frequency.service.fetch;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+//Groups message texts per user while the history streams by. Each user has one growing text buffer and the offsets
+//of where each message ends, so memory follows the amount of text and the number of users rather than one
+//String and list slot per message. Latin-1 text such as Swedish is stored as one byte per character
+public class MessageAggregator {
+
+    private final Map<String, TextBuffer> buffers = new HashMap<>();
+    private long messages;
+
+    //True the first time a user is seen. The user id kept is the first instance, later copies from each page are dropped
+    public boolean add(final String userId, final String text) {
+
+        final TextBuffer existing = buffers.get(userId);
+        messages++;
+
+        if (existing != null) {
+            existing.append(text);
+            return false;
+        }
+
+        final TextBuffer buffer = new TextBuffer();
+        buffer.append(text);
+        buffers.put(userId, buffer);
+        return true;
+    }
+
+    public int users() {
+        return buffers.size();
+    }
+
+    public long messages() {
+        return messages;
+    }
+
+    //Read only view of the texts in the order they were added, empty for users without messages
+    public List<String> messagesOf(final String userId) {
+
+        final TextBuffer buffer = buffers.get(userId);
+
+        return buffer == null ? List.of() : buffer.toList();
+    }
+
+    private static final class TextBuffer {
+
+        private final StringBuilder text = new StringBuilder();
+        private int[] ends = new int[4];
+        private int count;
+
+        private void append(final String message) {
+
+            if (message != null) {
+                text.append(message);
+            }
+
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            ends[count++] = text.length();
+        }
+
+        private List<String> toList() {
+            return new TextList(text.toString(), Arrays.copyOf(ends, count));
+        }
+    }
+
+    //Messages are cut out of the joined text when read
+    private static final class TextList extends AbstractList<String> implements RandomAccess {
+
+        private final String text;
+        private final int[] ends;
+
+        private TextList(final String text, final int[] ends) {
+            this.text = text;
+            this.ends = ends;
+        }
+
+        @Override
+        public String get(final int index) {
+
+            final int start = index == 0 ? 0 : ends[index - 1];
+
+            return text.substring(start, ends[index]);
+        }
+
+        @Override
+        public int size() {
+            return ends.length;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package meeting.frequency.service.fetch;
+
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface MessageHistory {
+
+    //Throws while streaming when a page could not be read, a stream that ends has read every page
+    Stream<MessagesItem> messagesSince(final long startTimestamp);
+
+    //Replies posted from startTimestamp on to threads whose parents were read before, none for a history without threads
+    default Stream<MessagesItem> repliesSince(final Collection<String> threadTs, final long startTimestamp) {
+        return Stream.empty();
+    }
+}
@@ -0,0 +1,10 @@
+package meeting.frequency.service.fetch;
+
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+
+import java.util.stream.Stream;
+
+public interface ThreadReplies {
+
+    Stream<MessagesItem> repliesSince(final String threadTs, final long startTimestamp);
+}
@@ -0,0 +1,148 @@
+package meeting.frequency.service.fetch;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+//Channel messages followed by the replies of their threads. A thread is fetched with conversations.replies as soon as
+//its parent streams by, at most `parallelism` at a time, while the next history pages are still being read.
+//Every ts is emitted once, so overlapping pages, the parent returned with its replies and replies also sent to the
+//channel are not counted twice
+public class ThreadedMessageHistory implements MessageHistory {
+
+    private final MessageHistory channelHistory;
+    private final ThreadReplies threadReplies;
+    private final int parallelism;
+    private final Metrics metrics;
+    private final Logger logger;
+
+    public ThreadedMessageHistory(final SlackHttpClient slackHttpClient, final int parallelism, final Metrics metrics,
+                                  final Logger logger) {
+
+        this(slackHttpClient::streamSlackHistory, slackHttpClient::streamSlackReplies, parallelism, metrics, logger);
+    }
+
+    public ThreadedMessageHistory(final MessageHistory channelHistory, final ThreadReplies threadReplies,
+                                  final int parallelism, final Logger logger) {
+
+        this(channelHistory, threadReplies, parallelism, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public ThreadedMessageHistory(final MessageHistory channelHistory, final ThreadReplies threadReplies,
+                                  final int parallelism, final Metrics metrics, final Logger logger) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was : " + parallelism);
+        }
+
+        this.channelHistory = channelHistory;
+        this.threadReplies = threadReplies;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    @Override
+    public Stream<MessagesItem> messagesSince(final long startTimestamp) {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        final Map<String, CompletableFuture<List<MessagesItem>>> threads = new LinkedHashMap<>();
+        final Set<String> seenTs = new HashSet<>();
+
+        final Stream<MessagesItem> channelMessages = channelHistory.messagesSince(startTimestamp)
+                .filter(messagesItem -> messagesItem.ts() == null || seenTs.add(messagesItem.ts()))
+                .map(messagesItem -> {
+                    if (messagesItem.hasReplies()) {
+                        threads.computeIfAbsent(messagesItem.ts(), threadTs ->
+                                CompletableFuture.supplyAsync(() -> fetchReplies(threadTs, startTimestamp), executor));
+                    }
+                    return messagesItem;
+                });
+
+        return Stream.concat(channelMessages, replies(threads, executor, seenTs)).onClose(executor::shutdownNow);
+    }
+
+    //e.g. threads stored in an earlier run, whose parents are older than the range read from the channel
+    @Override
+    public Stream<MessagesItem> repliesSince(final Collection<String> threadTs, final long startTimestamp) {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        final Map<String, CompletableFuture<List<MessagesItem>>> threads = new LinkedHashMap<>();
+
+        for (String parentTs : threadTs) {
+            threads.computeIfAbsent(parentTs, ts -> CompletableFuture.supplyAsync(() -> fetchReplies(ts, startTimestamp), executor));
+        }
+
+        return replies(threads, executor, new HashSet<>()).onClose(executor::shutdownNow);
+    }
+
+    //Threads are joined once the stream gets here, after every channel message in messagesSince. A parent returned with
+    //its replies and not seen before is kept, it carries the current reply_count and latest_reply
+    private Stream<MessagesItem> replies(final Map<String, CompletableFuture<List<MessagesItem>>> threads,
+                                         final ExecutorService executor, final Set<String> seenTs) {
+
+        return Stream.of(threads)
+                .flatMap(fetchedThreads -> {
+                    try {
+                        metrics.add("threads.fetched", fetchedThreads.size());
+
+                        final List<MessagesItem> replies = new ArrayList<>();
+                        for (CompletableFuture<List<MessagesItem>> thread : fetchedThreads.values()) {
+                            for (MessagesItem reply : join(thread)) {
+                                if (reply.ts() != null && seenTs.add(reply.ts())) {
+                                    replies.add(reply);
+                                    if (!reply.hasReplies()) {
+                                        metrics.increment("threads.replies");
+                                    }
+                                }
+                            }
+                        }
+
+                        return replies.stream();
+                    } finally {
+                        executor.shutdown();
+                    }
+                });
+    }
+
+    //A thread that cannot be read, e.g. an ok=false replies page, fails the stream like a failed history page does,
+    //so a store does not move its checkpoint past a thread with missing replies
+    private List<MessagesItem> fetchReplies(final String threadTs, final long startTimestamp) {
+
+        try (Stream<MessagesItem> replies = threadReplies.repliesSince(threadTs, startTimestamp)) {
+            return replies.toList();
+        } catch (RuntimeException e) {
+            metrics.increment("threads.failed");
+            logger.log(Level.SEVERE, "Could not read replies of thread %s : %s".formatted(threadTs, e.getMessage()));
+            throw e;
+        }
+    }
+
+    private static List<MessagesItem> join(final CompletableFuture<List<MessagesItem>> thread) {
+
+        try {
+            return thread.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package meeting.frequency.service.fetch.model;
 
 import java.util.List;
 
-public record Message(String name,
+//One Slack user's posts, the user id tells apart people with the same display name
+public record Message(String userId,
+                      String name,
                       String office,
                       List<String> rawMessages) {
 }
@@ -0,0 +1,127 @@
+package meeting.frequency.service.fetch.office;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.Office;
+import meeting.frequency.parameter.OfficeRoster;
+import meeting.frequency.service.fetch.office.model.OfficeMatch;
+import meeting.frequency.service.file.JsonFileStore;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+//Office of each Slack user, taken from the profile when the resolver finds one and otherwise matched with the roster.
+//Roster matches are remembered in memory and in a file that survives between runs, and reused as long as the user
+//has the same name and the roster has not changed
+public class OfficeDirectory {
+
+    private final static String CACHE_FILE_NAME = "slack-user-offices.json";
+
+    private final OfficeResolver profileOffices;
+    private final JsonFileStore<OfficeMatch> cacheFile;
+    private final Metrics metrics;
+    private final Map<String, OfficeMatch> memory = new HashMap<>();
+
+    private boolean fileLoaded;
+
+    public OfficeDirectory(final Path cacheDirectory, final Logger logger) {
+
+        this(OfficeResolver.none(), cacheDirectory, logger);
+    }
+
+    public OfficeDirectory(final OfficeResolver profileOffices, final Path cacheDirectory, final Logger logger) {
+
+        this(profileOffices, cacheDirectory, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public OfficeDirectory(final OfficeResolver profileOffices, final Path cacheDirectory, final Metrics metrics,
+                           final Logger logger) {
+
+        this.profileOffices = profileOffices;
+        this.cacheFile = cacheDirectory == null
+                ? null
+                : new JsonFileStore<>(cacheDirectory.resolve(CACHE_FILE_NAME), new TypeReference<>() {}, logger);
+        this.metrics = metrics;
+    }
+
+    //Kept for the run only
+    public OfficeDirectory(final Logger logger) {
+
+        this(OfficeResolver.none(), null, logger);
+    }
+
+    //User id to office, users found neither in their profile nor in the roster are left out
+    public Map<String, Office> officesOf(final Collection<User> users, final OfficeRoster officeRoster) {
+
+        //Profiles are read before taking the lock, the roster matching below needs no network
+        final Map<String, Office> offices = new HashMap<>(profileOffices.resolveOffices(
+                users.stream().map(User::id).collect(Collectors.toSet())));
+        metrics.add("office.match.profile", offices.size());
+
+        synchronized (memory) {
+            return matchRoster(users, officeRoster, offices);
+        }
+    }
+
+    private Map<String, Office> matchRoster(final Collection<User> users, final OfficeRoster officeRoster,
+                                            final Map<String, Office> offices) {
+
+        loadFileOnce();
+
+        final Map<String, OfficeMatch> updatedEntries = new HashMap<>();
+
+        for (User user : users) {
+            if (offices.containsKey(user.id())) {
+                continue;
+            }
+
+            OfficeMatch officeMatch = memory.get(user.id());
+
+            if (officeMatch != null && officeMatch.isFor(user.realName(), officeRoster.version())) {
+                metrics.increment("office.match.cached");
+            } else {
+                officeMatch = new OfficeMatch(user.realName(), officeRoster.version(), officeRoster.match(user.realName()).orElse(null));
+                metrics.increment(officeMatch.office() == null ? "office.match.none" : "office.match.new");
+
+                memory.put(user.id(), officeMatch);
+                updatedEntries.put(user.id(), officeMatch);
+            }
+
+            if (officeMatch.office() != null) {
+                offices.put(user.id(), officeMatch.office());
+            }
+        }
+
+        if (cacheFile != null) {
+            cacheFile.putAll(updatedEntries);
+        }
+
+        return offices;
+    }
+
+    //Profile offices and roster matches of the run are written once when it ends
+    public void save() {
+
+        profileOffices.save();
+
+        if (cacheFile != null) {
+            cacheFile.save();
+        }
+    }
+
+    private void loadFileOnce() {
+
+        if (fileLoaded || cacheFile == null) {
+            return;
+        }
+
+        fileLoaded = true;
+        memory.putAll(cacheFile.read());
+    }
+}
@@ -0,0 +1,20 @@
+package meeting.frequency.service.fetch.office;
+
+import meeting.frequency.parameter.Office;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface OfficeResolver {
+
+    //Offices of the users that could be resolved, keyed by user id. Users left out are matched with the roster
+    Map<String, Office> resolveOffices(Set<String> userIds);
+
+    //Called once when the run ends, see UserResolver.save
+    default void save() {
+    }
+
+    static OfficeResolver none() {
+        return userIds -> Map.of();
+    }
+}
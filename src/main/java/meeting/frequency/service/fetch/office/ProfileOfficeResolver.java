@@ -0,0 +1,182 @@
+package meeting.frequency.service.fetch.office;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.Office;
+import meeting.frequency.service.fetch.office.model.CachedOffice;
+import meeting.frequency.service.file.JsonFileStore;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.user.Profile;
+import meeting.frequency.service.integration.slack.pojo.user.ProfileField;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserProfileResponse;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Reads the office from a field of the Slack profile with users.profile.get, so new people need no roster change.
+//Profiles are cached per user id in memory and in a file, and read again once the cached office has expired
+public class ProfileOfficeResolver implements OfficeResolver {
+
+    private final static String CACHE_FILE_NAME = "slack-profile-offices.json";
+    private final static String TITLE_FIELD = "title";
+
+    private final SlackHttpClient slackHttpClient;
+    private final String profileField;
+    private final JsonFileStore<CachedOffice> cacheFile;
+    private final Duration ttl;
+    private final int parallelism;
+    private final Clock clock;
+    private final Metrics metrics;
+    private final Logger logger;
+    private final Map<String, CachedOffice> memory = new HashMap<>();
+
+    private boolean fileLoaded;
+
+    public ProfileOfficeResolver(final SlackHttpClient slackHttpClient, final String profileField, final Path cacheDirectory,
+                                 final Duration ttl, final int parallelism, final Clock clock, final Logger logger) {
+
+        this(slackHttpClient, profileField, cacheDirectory, ttl, parallelism, clock, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public ProfileOfficeResolver(final SlackHttpClient slackHttpClient, final String profileField, final Path cacheDirectory,
+                                 final Duration ttl, final int parallelism, final Clock clock, final Metrics metrics,
+                                 final Logger logger) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was : " + parallelism);
+        }
+
+        this.slackHttpClient = slackHttpClient;
+        this.profileField = profileField;
+        this.cacheFile = new JsonFileStore<>(cacheDirectory.resolve(CACHE_FILE_NAME), new TypeReference<>() {}, logger);
+        this.ttl = ttl;
+        this.parallelism = parallelism;
+        this.clock = clock;
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    @Override
+    public Map<String, Office> resolveOffices(final Set<String> userIds) {
+
+        final Instant now = clock.instant();
+        final Map<String, Office> offices = new HashMap<>();
+        final List<String> misses = new ArrayList<>();
+
+        synchronized (memory) {
+            loadFileOnce();
+
+            for (String userId : userIds) {
+                final CachedOffice cachedOffice = memory.get(userId);
+
+                if (cachedOffice == null || cachedOffice.isExpired(now, ttl)) {
+                    misses.add(userId);
+                } else if (cachedOffice.office() != null) {
+                    offices.put(userId, cachedOffice.office());
+                }
+            }
+        }
+
+        metrics.add("office.profile.cached", userIds.size() - misses.size());
+
+        if (misses.isEmpty()) {
+            return offices;
+        }
+
+        final Map<String, CachedOffice> updatedEntries = new HashMap<>();
+        fetchOffices(misses).forEach((userId, office) -> {
+            updatedEntries.put(userId, new CachedOffice(office.orElse(null), now.toEpochMilli()));
+            office.ifPresent(found -> offices.put(userId, found));
+        });
+
+        logger.log(Level.INFO, "Read %d Slack profiles, %d named an office"
+                .formatted(misses.size(), updatedEntries.values().stream().filter(entry -> entry.office() != null).count()));
+
+        synchronized (memory) {
+            memory.putAll(updatedEntries);
+        }
+
+        cacheFile.putAll(updatedEntries);
+
+        return offices;
+    }
+
+    //At most `parallelism` profile reads in flight, a failed read is left out and tried again on the next run
+    private Map<String, Optional<Office>> fetchOffices(final List<String> userIds) {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, userIds.size()));
+
+        try {
+            final Map<String, CompletableFuture<Optional<Office>>> futures = new HashMap<>();
+            userIds.forEach(userId -> futures.put(userId, CompletableFuture.supplyAsync(() -> fetchOffice(userId), executor)));
+
+            final Map<String, Optional<Office>> offices = new HashMap<>();
+            futures.forEach((userId, future) -> {
+                try {
+                    offices.put(userId, future.join());
+                } catch (RuntimeException e) {
+                    metrics.increment("office.profile.failed");
+                    logger.log(Level.WARNING, "Could not read Slack profile of %s : %s".formatted(userId, e.getMessage()));
+                }
+            });
+
+            return offices;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Optional<Office> fetchOffice(final String userId) {
+
+        final SlackUserProfileResponse response = slackHttpClient.fetchUserProfile(userId);
+
+        if (response == null || !response.ok()) {
+            throw new IllegalStateException(response == null ? "no response" : response.error());
+        }
+
+        return Office.findIn(profileValue(response.profile()));
+    }
+
+    private String profileValue(final Profile profile) {
+
+        if (profile == null) {
+            return null;
+        }
+
+        if (TITLE_FIELD.equals(profileField)) {
+            return profile.title();
+        }
+
+        final ProfileField field = profile.fields() == null ? null : profile.fields().get(profileField);
+
+        return field == null ? null : field.value();
+    }
+
+    @Override
+    public void save() {
+        cacheFile.save();
+    }
+
+    private void loadFileOnce() {
+
+        if (fileLoaded) {
+            return;
+        }
+
+        fileLoaded = true;
+        memory.putAll(cacheFile.read());
+    }
+}
@@ -0,0 +1,18 @@
+package meeting.frequency.service.fetch.office.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import meeting.frequency.parameter.Office;
+
+import java.time.Duration;
+import java.time.Instant;
+
+//Office is null when the profile did not name one, cached as well so those profiles are not read on every run
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CachedOffice(Office office, long fetchedAt) {
+
+    @JsonIgnore
+    public boolean isExpired(final Instant now, final Duration ttl) {
+        return Instant.ofEpochMilli(fetchedAt).plus(ttl).isBefore(now);
+    }
+}
@@ -0,0 +1,13 @@
+package meeting.frequency.service.fetch.office.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import meeting.frequency.parameter.Office;
+
+//Office is null when the name did not match anyone in the roster
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OfficeMatch(String name, String rosterVersion, Office office) {
+
+    public boolean isFor(final String name, final String rosterVersion) {
+        return this.name != null && this.name.equals(name) && this.rosterVersion != null && this.rosterVersion.equals(rosterVersion);
+    }
+}
@@ -0,0 +1,240 @@
+package meeting.frequency.service.fetch.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.service.fetch.store.model.Appended;
+import meeting.frequency.service.fetch.store.model.SlackTimestamp;
+import meeting.frequency.service.fetch.store.model.StoredMessage;
+import meeting.frequency.service.file.JsonFileStore;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+//Append only message log for one channel, one JSON line per message in a segment file per UTC day.
+//An edited message is appended again with the same ts and the last line for a ts wins when reading.
+//Segments older than the retention are removed by prune.
+public class MessageStore {
+
+    private final static String CHECKPOINT_FILE_NAME = "checkpoint";
+    private final static String SEGMENT_SUFFIX = ".jsonl";
+    //As long as the default trend, older messages are not in any report
+    private final static Duration DEFAULT_RETENTION = Duration.ofDays(7 * 13);
+
+    private final Path channelDirectory;
+    private final Duration retention;
+    private final Logger logger;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public MessageStore(final Path directory, final String channelId, final Logger logger) {
+        this(directory, channelId, DEFAULT_RETENTION, logger);
+    }
+
+    public MessageStore(final Path directory, final String channelId, final Duration retention, final Logger logger) {
+        this.channelDirectory = directory.resolve(channelId);
+        this.retention = retention;
+        this.logger = logger;
+    }
+
+    //ts of the newest message fetched so far
+    public Optional<String> checkpoint() {
+
+        final Path checkpointFile = channelDirectory.resolve(CHECKPOINT_FILE_NAME);
+
+        if (!Files.exists(checkpointFile)) {
+            return Optional.empty();
+        }
+
+        try {
+            final String checkpoint = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+
+            return checkpoint.isEmpty() ? Optional.empty() : Optional.of(checkpoint);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read checkpoint in %s, fetching the full window : %s"
+                    .formatted(channelDirectory, e.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    public void saveCheckpoint(final String ts) {
+
+        try {
+            JsonFileStore.writeString(channelDirectory.resolve(CHECKPOINT_FILE_NAME), ts);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write checkpoint in %s".formatted(channelDirectory), e);
+        }
+    }
+
+    //Writes the messages as they are streamed and returns the newest ts seen and every ts written
+    public Appended append(final Stream<MessagesItem> messages) {
+
+        final Appended appended = write(messages.filter(messagesItem -> messagesItem.ts() != null).map(StoredMessage::from));
+
+        logger.log(Level.INFO, "Appended %d messages to %s".formatted(appended.timestamps().size(), channelDirectory));
+
+        return appended;
+    }
+
+    //Slack does not report deletions, a message it no longer returns is appended again marked as deleted
+    public void markDeleted(final List<StoredMessage> deletedMessages) {
+
+        if (deletedMessages.isEmpty()) {
+            return;
+        }
+
+        write(deletedMessages.stream().map(StoredMessage::asDeleted));
+
+        logger.log(Level.INFO, "Marked %d messages deleted in %s".formatted(deletedMessages.size(), channelDirectory));
+    }
+
+    //Removes the segments of the days before now minus the retention, the checkpoint is kept
+    public void prune(final long nowEpochSecond) {
+
+        final String oldestKept = segmentDate(nowEpochSecond - retention.toSeconds()) + SEGMENT_SUFFIX;
+
+        if (!Files.isDirectory(channelDirectory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(channelDirectory)) {
+            final List<Path> expired = files
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .filter(file -> file.getFileName().toString().compareTo(oldestKept) < 0)
+                    .toList();
+
+            for (Path segment : expired) {
+                Files.deleteIfExists(segment);
+            }
+
+            if (!expired.isEmpty()) {
+                logger.log(Level.INFO, "Removed %d segments older than %s from %s"
+                        .formatted(expired.size(), oldestKept, channelDirectory));
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not remove old segments in %s : %s".formatted(channelDirectory, e.getMessage()));
+        }
+    }
+
+    //Messages with fromEpochSecond <= ts < toEpochSecond, oldest first, one entry per ts
+    public List<StoredMessage> read(final long fromEpochSecond, final long toEpochSecond) {
+
+        final Map<String, StoredMessage> messagesByTs = new LinkedHashMap<>();
+
+        for (LocalDate date = segmentDate(fromEpochSecond);
+             !date.isAfter(segmentDate(toEpochSecond));
+             date = date.plusDays(1)) {
+
+            final Path segment = channelDirectory.resolve(date + SEGMENT_SUFFIX);
+
+            if (!Files.exists(segment)) {
+                continue;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+
+                    final StoredMessage storedMessage = objectMapper.readValue(line, StoredMessage.class);
+                    final long epochSecond = storedMessage.epochSecond();
+
+                    if (epochSecond < fromEpochSecond || epochSecond >= toEpochSecond) {
+                        continue;
+                    }
+
+                    if (storedMessage.deleted()) {
+                        messagesByTs.remove(storedMessage.ts());
+                    } else {
+                        messagesByTs.put(storedMessage.ts(), storedMessage);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read segment %s".formatted(segment), e);
+            }
+        }
+
+        final List<StoredMessage> messages = new ArrayList<>(messagesByTs.values());
+        messages.sort(Comparator.comparing(StoredMessage::ts, SlackTimestamp.ORDER));
+
+        return messages;
+    }
+
+    private Appended write(final Stream<StoredMessage> storedMessages) {
+
+        final Map<LocalDate, BufferedWriter> segmentWriters = new HashMap<>();
+        final Set<String> timestamps = new HashSet<>();
+        String newestTs = null;
+
+        try {
+            Files.createDirectories(channelDirectory);
+
+            for (StoredMessage storedMessage : (Iterable<StoredMessage>) storedMessages::iterator) {
+
+                final BufferedWriter writer = segmentWriters.computeIfAbsent(
+                        segmentDate(storedMessage.epochSecond()), this::openSegment);
+
+                writer.write(objectMapper.writeValueAsString(storedMessage));
+                writer.newLine();
+                timestamps.add(storedMessage.ts());
+
+                if (newestTs == null || SlackTimestamp.ORDER.compare(storedMessage.ts(), newestTs) > 0) {
+                    newestTs = storedMessage.ts();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append messages in %s".formatted(channelDirectory), e);
+        } finally {
+            closeAll(segmentWriters.values());
+        }
+
+        return new Appended(newestTs, timestamps);
+    }
+
+    private BufferedWriter openSegment(final LocalDate date) {
+
+        try {
+            return Files.newBufferedWriter(channelDirectory.resolve(date + SEGMENT_SUFFIX), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeAll(final Iterable<BufferedWriter> writers) {
+
+        for (BufferedWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not close segment in %s : %s".formatted(channelDirectory, e.getMessage()));
+            }
+        }
+    }
+
+    private static LocalDate segmentDate(final long epochSecond) {
+        return LocalDate.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,130 @@
+package meeting.frequency.service.fetch.store;
+
+import meeting.frequency.service.fetch.FetchSlackMessages;
+import meeting.frequency.service.fetch.MessageHistory;
+import meeting.frequency.service.fetch.store.model.Appended;
+import meeting.frequency.service.fetch.store.model.SlackTimestamp;
+import meeting.frequency.service.fetch.store.model.StoredMessage;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+//Only asks Slack for messages after the last checkpoint and serves the window from the local store
+public class StoredMessageHistory implements MessageHistory {
+
+    //Slack keeps the original ts when a message is edited and does not report deletions. Re-reading as far back as the
+    //report window picks up every edit and deletion of a message that is reported
+    private final static Duration DEFAULT_RECONCILE_OVERLAP = Duration.ofDays(FetchSlackMessages.DAYS_TO_READ);
+
+    private final MessageHistory slackHistory;
+    private final MessageStore messageStore;
+    private final Duration reconcileOverlap;
+    private final Clock clock;
+    private final Logger logger;
+
+    public StoredMessageHistory(final SlackHttpClient slackHttpClient, final MessageStore messageStore, final Logger logger) {
+        this(slackHttpClient, messageStore, DEFAULT_RECONCILE_OVERLAP, Clock.systemUTC(), logger);
+    }
+
+    public StoredMessageHistory(final SlackHttpClient slackHttpClient, final MessageStore messageStore,
+                                final Duration reconcileOverlap, final Clock clock, final Logger logger) {
+        this(slackHttpClient::streamSlackHistory, messageStore, reconcileOverlap, clock, logger);
+    }
+
+    //e.g. a ThreadedMessageHistory, so thread replies are stored with the channel messages
+    public StoredMessageHistory(final MessageHistory slackHistory, final MessageStore messageStore, final Logger logger) {
+        this(slackHistory, messageStore, DEFAULT_RECONCILE_OVERLAP, Clock.systemUTC(), logger);
+    }
+
+    public StoredMessageHistory(final MessageHistory slackHistory, final MessageStore messageStore,
+                                final Duration reconcileOverlap, final Clock clock, final Logger logger) {
+        this.slackHistory = slackHistory;
+        this.messageStore = messageStore;
+        this.reconcileOverlap = reconcileOverlap;
+        this.clock = clock;
+        this.logger = logger;
+    }
+
+    @Override
+    public Stream<MessagesItem> messagesSince(final long startTimestamp) {
+
+        final long now = clock.instant().getEpochSecond();
+        final Optional<String> checkpoint = messageStore.checkpoint();
+        final long fetchFrom = checkpoint
+                .map(ts -> SlackTimestamp.epochSecond(ts) - reconcileOverlap.toSeconds())
+                .orElse(startTimestamp);
+
+        logger.log(Level.INFO, "Fetching history from %d, checkpoint %s".formatted(fetchFrom, checkpoint.orElse("none")));
+
+        final Optional<String> newestTs;
+        try (Stream<MessagesItem> fetched = slackHistory.messagesSince(fetchFrom)) {
+            final Appended appended = messageStore.append(fetched);
+            final Set<String> fetchedTs = new HashSet<>(appended.timestamps());
+            fetchedTs.addAll(appendNewReplies(startTimestamp, fetchFrom));
+            messageStore.markDeleted(deletedSince(fetchFrom, now, fetchedTs));
+            newestTs = appended.newest();
+        } catch (RuntimeException e) {
+            //History is read newest first, moving the checkpoint now would skip the older messages and the threads
+            //that were not read
+            logger.log(Level.SEVERE, "Fetching history failed, checkpoint stays at %s : %s"
+                    .formatted(checkpoint.orElse("none"), e.getMessage()));
+            throw e;
+        }
+
+        //Only moved forward once every page and every thread has been read, a failed run fetches the same range again
+        newestTs.filter(ts -> checkpoint.isEmpty() || SlackTimestamp.ORDER.compare(ts, checkpoint.get()) > 0)
+                .ifPresent(messageStore::saveCheckpoint);
+        messageStore.prune(now);
+
+        return messageStore.read(startTimestamp, now + 1)
+                .stream()
+                .map(StoredMessage::toMessagesItem);
+    }
+
+    //Slack lists a thread under its parent's ts, so the channel read from fetchFrom does not return a parent stored in
+    //an earlier run. Threads in the window that had replies are read again from fetchFrom to pick up new replies.
+    //Their replies do not move the checkpoint
+    private Set<String> appendNewReplies(final long startTimestamp, final long fetchFrom) {
+
+        final List<String> storedThreads = messageStore.read(startTimestamp, fetchFrom)
+                .stream()
+                .filter(storedMessage -> storedMessage.repliedSince(startTimestamp))
+                .map(StoredMessage::ts)
+                .toList();
+
+        if (storedThreads.isEmpty()) {
+            return Set.of();
+        }
+
+        logger.log(Level.INFO, "Reading replies of %d stored threads from %d".formatted(storedThreads.size(), fetchFrom));
+
+        final Set<String> threadsTs = new HashSet<>(storedThreads);
+        try (Stream<MessagesItem> replies = slackHistory.repliesSince(storedThreads, fetchFrom)) {
+            threadsTs.addAll(messageStore.append(replies).timestamps());
+        }
+
+        return threadsTs;
+    }
+
+    //Stored messages from fetchFrom that Slack did not return this run. Replies are only read with their thread, a
+    //reply counts as deleted when its thread was read
+    private List<StoredMessage> deletedSince(final long fetchFrom, final long now, final Set<String> fetchedTs) {
+
+        return messageStore.read(fetchFrom, now + 1)
+                .stream()
+                .filter(storedMessage -> !fetchedTs.contains(storedMessage.ts()))
+                .filter(storedMessage -> storedMessage.threadTs() == null
+                                         || storedMessage.threadTs().equals(storedMessage.ts())
+                                         || fetchedTs.contains(storedMessage.threadTs()))
+                .toList();
+    }
+}
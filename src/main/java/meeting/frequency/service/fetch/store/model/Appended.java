@@ -0,0 +1,12 @@
+package meeting.frequency.service.fetch.store.model;
+
+import java.util.Optional;
+import java.util.Set;
+
+//What one append wrote, newestTs is null when nothing was appended
+public record Appended(String newestTs, Set<String> timestamps) {
+
+    public Optional<String> newest() {
+        return Optional.ofNullable(newestTs);
+    }
+}
@@ -0,0 +1,19 @@
+package meeting.frequency.service.fetch.store.model;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+//Slack ts values look like "1743508273.230809", seconds and a unique suffix
+public final class SlackTimestamp {
+
+    public final static Comparator<String> ORDER = Comparator.comparing(BigDecimal::new);
+
+    private SlackTimestamp() {}
+
+    public static long epochSecond(final String ts) {
+
+        final int dot = ts.indexOf('.');
+
+        return Long.parseLong(dot < 0 ? ts : ts.substring(0, dot));
+    }
+}
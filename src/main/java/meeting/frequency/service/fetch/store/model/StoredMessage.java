@@ -0,0 +1,43 @@
+package meeting.frequency.service.fetch.store.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+
+import java.util.List;
+
+//Only the parts of a Slack message the report needs. Lines written before threads were stored have no thread fields.
+//A deleted line marks a message Slack no longer returns, it hides the earlier lines for the same ts
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StoredMessage(String ts,
+                            String user,
+                            String text,
+                            boolean hasBlocks,
+                            String threadTs,
+                            int replyCount,
+                            String latestReply,
+                            @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean deleted) {
+
+    public static StoredMessage from(final MessagesItem messagesItem) {
+        return new StoredMessage(messagesItem.ts(), messagesItem.user(), messagesItem.text(), messagesItem.blocks() != null,
+                messagesItem.threadTs(), messagesItem.replyCount(), messagesItem.latestReply(), false);
+    }
+
+    public StoredMessage asDeleted() {
+        return new StoredMessage(ts, null, null, false, threadTs, 0, null, true);
+    }
+
+    public MessagesItem toMessagesItem() {
+        return new MessagesItem(text, "message", user, ts, hasBlocks ? List.of() : null, threadTs, replyCount, latestReply);
+    }
+
+    public long epochSecond() {
+        return SlackTimestamp.epochSecond(ts);
+    }
+
+    //A thread parent whose last reply was posted from epochSecond on
+    public boolean repliedSince(final long epochSecond) {
+        return replyCount > 0 && ts.equals(threadTs) && latestReply != null
+               && SlackTimestamp.epochSecond(latestReply) >= epochSecond;
+    }
+}
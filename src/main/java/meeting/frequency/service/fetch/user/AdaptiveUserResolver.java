@@ -0,0 +1,42 @@
+package meeting.frequency.service.fetch.user;
+
+import meeting.frequency.service.integration.slack.pojo.user.User;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+//Few users are cheaper to look up one by one, many users are cheaper to read from a single users.list sweep
+public class AdaptiveUserResolver implements UserResolver {
+
+    private final UserResolver bulkResolver;
+    private final UserResolver targetedResolver;
+    private final int bulkThreshold;
+
+    public AdaptiveUserResolver(final UserResolver bulkResolver, final UserResolver targetedResolver, final int bulkThreshold) {
+        this.bulkResolver = bulkResolver;
+        this.targetedResolver = targetedResolver;
+        this.bulkThreshold = bulkThreshold;
+    }
+
+    @Override
+    public Map<String, User> resolveUsers(final Set<String> userIds) {
+
+        if (userIds.size() < bulkThreshold) {
+            return targetedResolver.resolveUsers(userIds);
+        }
+
+        final Map<String, User> resolved = new HashMap<>(bulkResolver.resolveUsers(userIds));
+
+        //users.list leaves out some ids, e.g. users from other workspaces in shared channels
+        final Set<String> missing = new HashSet<>(userIds);
+        missing.removeAll(resolved.keySet());
+
+        if (!missing.isEmpty()) {
+            resolved.putAll(targetedResolver.resolveUsers(missing));
+        }
+
+        return resolved;
+    }
+}
@@ -0,0 +1,79 @@
+package meeting.frequency.service.fetch.user;
+
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserListResponse;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Sweeps users.list page by page, stops as soon as every requested id has been seen.
+//The pages read are kept, so later batches continue the same sweep instead of starting a new one
+public class BulkUserResolver implements UserResolver {
+
+    //An older sweep is started over, so a warm instance picks up new and renamed users
+    private final static Duration SWEEP_LIFETIME = Duration.ofHours(1);
+
+    private final SlackHttpClient slackHttpClient;
+    private final Clock clock;
+    private final Logger logger;
+
+    private final Map<String, User> sweptUsers = new HashMap<>();
+    private Instant sweepStarted;
+    private String cursor;
+    private boolean sweepDone;
+
+    public BulkUserResolver(final SlackHttpClient slackHttpClient, final Logger logger) {
+        this(slackHttpClient, Clock.systemUTC(), logger);
+    }
+
+    public BulkUserResolver(final SlackHttpClient slackHttpClient, final Clock clock, final Logger logger) {
+        this.slackHttpClient = slackHttpClient;
+        this.clock = clock;
+        this.logger = logger;
+    }
+
+    //Synchronized so batches from channels reported at the same time wait for the one sweep rather than start their own
+    @Override
+    public synchronized Map<String, User> resolveUsers(final Set<String> userIds) {
+
+        if (sweepStarted == null || clock.instant().isAfter(sweepStarted.plus(SWEEP_LIFETIME))) {
+            sweptUsers.clear();
+            sweepStarted = clock.instant();
+            cursor = null;
+            sweepDone = false;
+        }
+
+        int pages = 0;
+
+        while (!sweepDone && !sweptUsers.keySet().containsAll(userIds)) {
+            final SlackUserListResponse page = slackHttpClient.fetchUserList(cursor);
+            pages++;
+
+            //The cursor is kept, the next batch picks the sweep up where it failed
+            if (!page.ok() || page.members() == null) {
+                break;
+            }
+
+            page.members().forEach(user -> sweptUsers.put(user.id(), user));
+
+            cursor = page.nextCursor();
+            sweepDone = cursor == null || cursor.isBlank();
+        }
+
+        final Map<String, User> resolved = new HashMap<>();
+        userIds.stream()
+                .filter(sweptUsers::containsKey)
+                .forEach(userId -> resolved.put(userId, sweptUsers.get(userId)));
+
+        logger.log(Level.INFO, "Resolved %d of %d users, read %d more users.list pages".formatted(resolved.size(), userIds.size(), pages));
+
+        return resolved;
+    }
+}
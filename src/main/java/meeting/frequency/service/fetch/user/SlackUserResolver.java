@@ -0,0 +1,90 @@
+package meeting.frequency.service.fetch.user;
+
+import meeting.frequency.service.integration.slack.SlackApiException;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserInfoResponse;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+public class SlackUserResolver implements UserResolver {
+
+    private final static String USER_NOT_FOUND = "user_not_found";
+
+    private final SlackHttpClient slackHttpClient;
+    private final int parallelism;
+    private final Logger logger;
+
+    public SlackUserResolver(final SlackHttpClient slackHttpClient, final int parallelism, final Logger logger) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was : " + parallelism);
+        }
+
+        this.slackHttpClient = slackHttpClient;
+        this.parallelism = parallelism;
+        this.logger = logger;
+    }
+
+    @Override
+    public Map<String, User> resolveUsers(final Set<String> userIds) {
+
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        //At most `parallelism` users.info calls are in flight at the same time
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, userIds.size()));
+
+        try {
+            final Map<String, CompletableFuture<User>> futures = userIds.stream()
+                    .collect(Collectors.toMap(Function.identity(),
+                            userId -> CompletableFuture.supplyAsync(() -> fetchUser(userId), executor)
+                                    .exceptionally(e -> {
+                                        //Left out rather than reported as not found, so the next run asks again
+                                        logger.log(Level.WARNING, "Could not resolve user %s : %s".formatted(userId, e.getMessage()));
+                                        return null;
+                                    })));
+
+            final Map<String, User> resolved = new HashMap<>();
+            futures.forEach((userId, future) -> {
+                final User user = future.join();
+                if (user != null) {
+                    resolved.put(userId, user);
+                }
+            });
+
+            return resolved;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private User fetchUser(final String userId) {
+
+        final SlackUserInfoResponse response = slackHttpClient.fetchUserInformation(userId);
+
+        if (response == null) {
+            throw new IllegalStateException("No users.info response");
+        }
+
+        if (response.ok()) {
+            return response.user() == null ? User.EMPTY_USER() : response.user();
+        }
+
+        if (USER_NOT_FOUND.equals(response.error())) {
+            return User.EMPTY_USER();
+        }
+
+        throw new SlackApiException(response.error());
+    }
+}
@@ -0,0 +1,133 @@
+package meeting.frequency.service.fetch.user;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import meeting.frequency.service.fetch.user.model.CachedUser;
+import meeting.frequency.service.file.JsonFileStore;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Caches user lookups in front of another resolver, first in memory (LRU) and then in a file that survives between runs
+public class UserDirectory implements UserResolver {
+
+    private final static String CACHE_FILE_NAME = "slack-users.json";
+    private final static int DEFAULT_MEMORY_CAPACITY = 5_000;
+    private final static Duration DEFAULT_TTL = Duration.ofDays(14);
+    private final static Duration DEFAULT_NEGATIVE_TTL = Duration.ofDays(1);
+
+    private final UserResolver delegate;
+    private final JsonFileStore<CachedUser> cacheFile;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Clock clock;
+    private final Logger logger;
+    private final Map<String, CachedUser> memory;
+
+    private boolean fileLoaded;
+
+    public UserDirectory(final UserResolver delegate, final Path cacheDirectory, final Logger logger) {
+
+        this(delegate, cacheDirectory, DEFAULT_MEMORY_CAPACITY, DEFAULT_TTL, DEFAULT_NEGATIVE_TTL, Clock.systemUTC(), logger);
+    }
+
+    public UserDirectory(final UserResolver delegate, final Path cacheDirectory, final int memoryCapacity,
+                         final Duration ttl, final Duration negativeTtl, final Clock clock, final Logger logger) {
+
+        this.delegate = delegate;
+        this.cacheFile = new JsonFileStore<>(cacheDirectory.resolve(CACHE_FILE_NAME), new TypeReference<>() {}, logger);
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+        this.logger = logger;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedUser> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+    }
+
+    @Override
+    public Map<String, User> resolveUsers(final Set<String> userIds) {
+
+        final Instant now = clock.instant();
+        final Map<String, User> resolved = new HashMap<>();
+        final Set<String> misses = new HashSet<>();
+
+        synchronized (memory) {
+            loadFileOnce();
+
+            for (String userId : userIds) {
+                final CachedUser cachedUser = memory.get(userId);
+
+                if (cachedUser == null || cachedUser.isExpired(now, ttl, negativeTtl)) {
+                    misses.add(userId);
+                } else if (!cachedUser.isNegative()) {
+                    resolved.put(userId, cachedUser.user());
+                }
+            }
+        }
+
+        logger.log(Level.INFO, "User directory served %d of %d users from cache"
+                .formatted(userIds.size() - misses.size(), userIds.size()));
+
+        if (misses.isEmpty()) {
+            return resolved;
+        }
+
+        final Map<String, User> fetchedUsers = delegate.resolveUsers(misses);
+        final Map<String, CachedUser> updatedEntries = new HashMap<>();
+
+        //Only answers are cached, ids whose lookup failed are asked for again next time
+        fetchedUsers.forEach((userId, user) -> {
+            if (!misses.contains(userId)) {
+                return;
+            }
+
+            final CachedUser cachedUser = new CachedUser(user, now.toEpochMilli());
+            updatedEntries.put(userId, cachedUser);
+
+            if (!cachedUser.isNegative()) {
+                resolved.put(userId, user);
+            }
+        });
+
+        if (updatedEntries.size() < misses.size()) {
+            logger.log(Level.WARNING, "Could not look up %d users, they are not cached".formatted(misses.size() - updatedEntries.size()));
+        }
+
+        synchronized (memory) {
+            memory.putAll(updatedEntries);
+        }
+
+        cacheFile.putAll(updatedEntries);
+
+        return resolved;
+    }
+
+    //Memory only keeps the most recently used users, the file keeps every lookup of the run
+    @Override
+    public void save() {
+        cacheFile.save();
+    }
+
+    private void loadFileOnce() {
+
+        if (fileLoaded) {
+            return;
+        }
+
+        fileLoaded = true;
+        memory.putAll(cacheFile.read());
+    }
+}
@@ -0,0 +1,16 @@
+package meeting.frequency.service.fetch.user;
+
+import meeting.frequency.service.integration.slack.pojo.user.User;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface UserResolver {
+
+    //Returns user id to user. Ids Slack does not know map to User.EMPTY_USER(), ids whose lookup failed are left out
+    Map<String, User> resolveUsers(final Set<String> userIds);
+
+    //Writes what was looked up during the run so the next run can reuse it, called once when the run ends
+    default void save() {
+    }
+}
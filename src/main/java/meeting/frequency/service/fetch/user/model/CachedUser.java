@@ -0,0 +1,24 @@
+package meeting.frequency.service.fetch.user.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CachedUser(User user, long fetchedAt) {
+
+    //A lookup that returned no user, cached so unknown ids are not looked up on every run
+    @JsonIgnore
+    public boolean isNegative() {
+        return user == null || user.equals(User.EMPTY_USER());
+    }
+
+    public boolean isExpired(final Instant now, final Duration ttl, final Duration negativeTtl) {
+        final Duration timeToLive = isNegative() ? negativeTtl : ttl;
+
+        return Instant.ofEpochMilli(fetchedAt).plus(timeToLive).isBefore(now);
+    }
+}
@@ -0,0 +1,94 @@
+package meeting.frequency.service.file;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Entries kept in one JSON file between runs. Changes are collected during the run and written once by save(),
+//merged into the file as it is then, so entries evicted from memory or written by another run are kept.
+//Files are written to a temporary file and moved in place, a run that stops half way leaves the previous version
+public class JsonFileStore<V> {
+
+    private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path file;
+    private final TypeReference<Map<String, V>> type;
+    private final Logger logger;
+    private final Map<String, V> changed = new HashMap<>();
+
+    public JsonFileStore(final Path file, final TypeReference<Map<String, V>> type, final Logger logger) {
+        this.file = file;
+        this.type = type;
+        this.logger = logger;
+    }
+
+    //Empty when the file is missing or cannot be read, the entries are then looked up again
+    public Map<String, V> read() {
+
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+
+        try {
+            return OBJECT_MAPPER.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read %s, starting empty : %s".formatted(file, e.getMessage()));
+            return Map.of();
+        }
+    }
+
+    public synchronized void putAll(final Map<String, V> entries) {
+        changed.putAll(entries);
+    }
+
+    public synchronized void save() {
+
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        final Map<String, V> fileEntries = new HashMap<>(read());
+        fileEntries.putAll(changed);
+
+        try {
+            write(file, fileEntries);
+            changed.clear();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write %s : %s".formatted(file, e.getMessage()));
+        }
+    }
+
+    public static void write(final Path file, final Object value) throws IOException {
+        replace(file, temporaryFile -> OBJECT_MAPPER.writeValue(temporaryFile.toFile(), value));
+    }
+
+    public static void writeString(final Path file, final String text) throws IOException {
+        replace(file, temporaryFile -> Files.writeString(temporaryFile, text, StandardCharsets.UTF_8));
+    }
+
+    private static void replace(final Path file, final Content content) throws IOException {
+
+        Files.createDirectories(file.getParent());
+
+        final Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            content.writeTo(temporaryFile);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private interface Content {
+        void writeTo(Path temporaryFile) throws IOException;
+    }
+}
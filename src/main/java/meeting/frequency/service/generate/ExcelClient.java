@@ -1,78 +1,201 @@
 package meeting.frequency.service.generate;
 
+import meeting.frequency.service.history.model.WeeklyRollup;
 import meeting.frequency.service.process.model.MeetingFrequency;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class ExcelClient {
 
+    //Rows kept in memory, older rows are flushed to a temporary file by POI
+    private final static int DEFAULT_ROW_WINDOW = 100;
+    private final static int COLUMNS = 4;
+    private final static int MAX_COLUMN_WIDTH = 255 * 256;
+
+    private final int rowWindow;
+    private final String reportTitle;
+
+    public ExcelClient() {
+        this(DEFAULT_ROW_WINDOW);
+    }
+
+    public ExcelClient(final int rowWindow) {
+        this(rowWindow, null);
+    }
+
+    //The title tells reports apart when several channels are reported, e.g. "MeetingFrequency sales-stockholm ..."
+    public ExcelClient(final String reportTitle) {
+        this(DEFAULT_ROW_WINDOW, reportTitle);
+    }
+
+    public ExcelClient(final int rowWindow, final String reportTitle) {
+        this.rowWindow = rowWindow;
+        this.reportTitle = reportTitle;
+    }
+
+    public String documentName() {
+
+        final String period = LocalDate.now().minusDays(7) + " - " + LocalDate.now();
+
+        return reportTitle == null
+                ? "MeetingFrequency %s.xlsx".formatted(period)
+                : "MeetingFrequency %s %s.xlsx".formatted(reportTitle, period);
+    }
+
     public File generateDocument(final List<MeetingFrequency> meetingFrequencyList,
                                  final Map<String, Integer> officeToTotalMeetings) throws IOException {
 
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet =
-                workbook.createSheet("Meeting Frequency " + LocalDate.now().minusDays(7) + " - " + LocalDate.now());
+        //Only way to store write files on AWS lambda
+        File classDir = new File(System.getProperty("java.io.tmpdir"));
 
-        Row headerRow = sheet.createRow(0);
-        headerRow.createCell(0).setCellValue("Name");
-        headerRow.createCell(1).setCellValue("Total meetings");
-        headerRow.createCell(2).setCellValue("Companies");
-        headerRow.createCell(3).setCellValue("Office");
+        File file = new File(classDir, documentName());
 
-        int rowNum = 1;
-        for (MeetingFrequency meetingFrequency : meetingFrequencyList) {
-            Row row = sheet.createRow(rowNum++);
+        try (FileOutputStream fileOut = new FileOutputStream(file)) {
+            writeDocument(meetingFrequencyList, officeToTotalMeetings, fileOut);
+
+            return file;
+        }
+    }
+
+    public void writeDocument(final List<MeetingFrequency> meetingFrequencyList,
+                              final Map<String, Integer> officeToTotalMeetings,
+                              final OutputStream outputStream) throws IOException {
+
+        writeDocument(meetingFrequencyList, officeToTotalMeetings, List.of(), outputStream);
+    }
+
+    public void writeDocument(final List<MeetingFrequency> meetingFrequencyList,
+                              final Map<String, Integer> officeToTotalMeetings,
+                              final List<WeeklyRollup> trend,
+                              final OutputStream outputStream) throws IOException {
+
+        //close() also deletes the temporary files the streamed rows were flushed to
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow)) {
+            Sheet sheet =
+                    workbook.createSheet("Meeting Frequency " + LocalDate.now().minusDays(7) + " - " + LocalDate.now());
 
+            //autoSizeColumn needs every row in memory, widths are tracked while writing instead
+            final int[] columnWidths = new int[COLUMNS];
 
-            row.createCell(0).setCellValue(meetingFrequency.name());
-            row.createCell(1).setCellValue(meetingFrequency.meetings());
-            row.createCell(2).setCellValue(String.join(", ", meetingFrequency.companies()));
-            row.createCell(3).setCellValue(meetingFrequency.office());
+            Row headerRow = sheet.createRow(0);
+            setCell(headerRow, 0, "Name", columnWidths);
+            setCell(headerRow, 1, "Total meetings", columnWidths);
+            setCell(headerRow, 2, "Companies", columnWidths);
+            setCell(headerRow, 3, "Office", columnWidths);
+
+            int rowNum = 1;
+            for (MeetingFrequency meetingFrequency : meetingFrequencyList) {
+                Row row = sheet.createRow(rowNum++);
+
+                setCell(row, 0, meetingFrequency.name(), columnWidths);
+                setCell(row, 1, meetingFrequency.meetings(), columnWidths);
+                setCell(row, 2, String.join(", ", meetingFrequency.companies()), columnWidths);
+                setCell(row, 3, meetingFrequency.office(), columnWidths);
+            }
+            Row totalMeetingsRow = sheet.createRow(rowNum++);
+            setCell(totalMeetingsRow, 1, meetingFrequencyList.stream().mapToInt(MeetingFrequency::meetings).sum(), columnWidths);
+
+            rowNum = rowNum + 2;
+            Row officeTotalMeetingsHeaderRow = sheet.createRow(rowNum++);
+
+            setCell(officeTotalMeetingsHeaderRow, 0, "Office", columnWidths);
+            setCell(officeTotalMeetingsHeaderRow, 1, "Total Meetings", columnWidths);
+
+            for (Map.Entry<String, Integer> officeToTotalMeetingsEntry : officeToTotalMeetings.entrySet()) {
+                Row row = sheet.createRow(rowNum++);
+
+                setCell(row, 0, officeToTotalMeetingsEntry.getKey(), columnWidths);
+                setCell(row, 1, officeToTotalMeetingsEntry.getValue(), columnWidths);
+            }
+
+            for (int column = 0; column < COLUMNS; column++) {
+                sheet.setColumnWidth(column, Math.min(MAX_COLUMN_WIDTH, (columnWidths[column] + 2) * 256));
+            }
+
+            if (!trend.isEmpty()) {
+                writeTrendSheet(workbook.createSheet("Trend " + trend.get(0).week() + " - " + trend.get(trend.size() - 1).week()), trend);
+            }
+
+            workbook.write(outputStream);
         }
-        Row totalMeetingsRow = sheet.createRow(rowNum++);
-        totalMeetingsRow.createCell(1).setCellValue(meetingFrequencyList.stream().mapToInt(MeetingFrequency::meetings).sum());
+    }
 
-        rowNum = rowNum + 2;
-        Row officeTotalMeetingsHeaderRow = sheet.createRow(rowNum++);
+    //One row per person, office and company with a column per week, read from the stored weekly rollups
+    private void writeTrendSheet(final Sheet sheet, final List<WeeklyRollup> trend) {
 
-        officeTotalMeetingsHeaderRow.createCell(0).setCellValue("Office");
-        officeTotalMeetingsHeaderRow.createCell(1).setCellValue("Total Meetings");
+        final int[] columnWidths = new int[trend.size() + 2];
 
-        for (Map.Entry<String, Integer> officeToTotalMeetingsEntry : officeToTotalMeetings.entrySet()) {
-            Row row = sheet.createRow(rowNum++);
+        //People are shown with the newest name they were reported under
+        final Map<String, String> names = new HashMap<>();
+        trend.forEach(rollup -> names.putAll(rollup.names()));
 
-            row.createCell(0).setCellValue(officeToTotalMeetingsEntry.getKey());
-            row.createCell(1).setCellValue(officeToTotalMeetingsEntry.getValue());
+        int rowNum = writeTrendSection(sheet, 0, "Name", trend, WeeklyRollup::people,
+                person -> names.getOrDefault(person, person), columnWidths);
+        rowNum = writeTrendSection(sheet, rowNum + 2, "Office", trend, WeeklyRollup::offices, Function.identity(), columnWidths);
+        writeTrendSection(sheet, rowNum + 2, "Company", trend, WeeklyRollup::companies, Function.identity(), columnWidths);
+
+        for (int column = 0; column < columnWidths.length; column++) {
+            sheet.setColumnWidth(column, Math.min(MAX_COLUMN_WIDTH, (columnWidths[column] + 2) * 256));
         }
+    }
 
-        // Auto-size columns for better readability
-        sheet.autoSizeColumn(0);
-        sheet.autoSizeColumn(1);
-        sheet.autoSizeColumn(2);
-        sheet.autoSizeColumn(3);
+    private int writeTrendSection(final Sheet sheet, final int firstRow, final String title, final List<WeeklyRollup> trend,
+                                  final Function<WeeklyRollup, Map<String, Integer>> counts,
+                                  final Function<String, String> label, final int[] columnWidths) {
 
-        //Only way to store write files on AWS lambda
-        File classDir = new File(System.getProperty("java.io.tmpdir"));
+        final int totalColumn = trend.size() + 1;
+        int rowNum = firstRow;
 
-        File file = new File(classDir,
-                "MeetingFrequency %s.xlsx".formatted(LocalDate.now().minusDays(7) + " - " + LocalDate.now()));
+        Row headerRow = sheet.createRow(rowNum++);
+        setCell(headerRow, 0, title, columnWidths);
+        for (int week = 0; week < trend.size(); week++) {
+            setCell(headerRow, week + 1, trend.get(week).week(), columnWidths);
+        }
+        setCell(headerRow, totalColumn, "Total", columnWidths);
 
-        try (FileOutputStream fileOut = new FileOutputStream(file)) {
-            workbook.write(fileOut);
+        final Map<String, Integer> totals = new HashMap<>();
+        trend.forEach(rollup -> counts.apply(rollup).forEach((key, meetings) -> totals.merge(key, meetings, Integer::sum)));
 
-            workbook.close();
+        final List<Map.Entry<String, Integer>> sortedTotals = totals.entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .toList();
 
-            return file;
+        for (Map.Entry<String, Integer> total : sortedTotals) {
+            Row row = sheet.createRow(rowNum++);
+
+            setCell(row, 0, label.apply(total.getKey()), columnWidths);
+            for (int week = 0; week < trend.size(); week++) {
+                setCell(row, week + 1, counts.apply(trend.get(week)).getOrDefault(total.getKey(), 0), columnWidths);
+            }
+            setCell(row, totalColumn, total.getValue(), columnWidths);
         }
 
+        return rowNum;
+    }
+
+    private void setCell(final Row row, final int column, final String value, final int[] columnWidths) {
+
+        final String cellValue = value == null ? "" : value;
+
+        row.createCell(column).setCellValue(cellValue);
+        columnWidths[column] = Math.max(columnWidths[column], cellValue.length());
+    }
+
+    private void setCell(final Row row, final int column, final int value, final int[] columnWidths) {
+
+        row.createCell(column).setCellValue(value);
+        columnWidths[column] = Math.max(columnWidths[column], String.valueOf(value).length());
     }
 }
@@ -1,9 +1,11 @@
 package meeting.frequency.service.generate;
 
+import meeting.frequency.service.history.model.WeeklyRollup;
 import meeting.frequency.service.process.model.MeetingFrequency;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +30,26 @@ public class ExcelDocumentService implements GenerateDocumentService {
         return excelClient.generateDocument(meetingFrequencyList, officeToTotalMeetings);
     }
 
-    private Map<String, Integer> getOfficeToTotalMeetings(final List<MeetingFrequency> meetingFrequencyList) {
+    @Override
+    public String documentName() {
+
+        return excelClient.documentName();
+    }
+
+    @Override
+    public void writeDocument(final List<MeetingFrequency> meetingFrequencyList, final OutputStream outputStream) throws IOException {
+
+        excelClient.writeDocument(meetingFrequencyList, getOfficeToTotalMeetings(meetingFrequencyList), outputStream);
+    }
+
+    @Override
+    public void writeDocument(final List<MeetingFrequency> meetingFrequencyList, final List<WeeklyRollup> trend,
+                              final OutputStream outputStream) throws IOException {
+
+        excelClient.writeDocument(meetingFrequencyList, getOfficeToTotalMeetings(meetingFrequencyList), trend, outputStream);
+    }
+
+    Map<String, Integer> getOfficeToTotalMeetings(final List<MeetingFrequency> meetingFrequencyList) {
 
         return meetingFrequencyList.stream()
                 .collect(Collectors.groupingBy(MeetingFrequency::office))
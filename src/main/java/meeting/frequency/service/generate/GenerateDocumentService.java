@@ -1,9 +1,11 @@
 package meeting.frequency.service.generate;
 
+import meeting.frequency.service.history.model.WeeklyRollup;
 import meeting.frequency.service.process.model.MeetingFrequency;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.util.List;
 
@@ -11,4 +13,13 @@ public interface GenerateDocumentService {
 
 
     File generateDocument(final List<MeetingFrequency> meetingFrequencyList) throws IOException, URISyntaxException;
+
+    String documentName();
+
+    //Writes the document without going through a file, e.g. into a buffer that is uploaded directly
+    void writeDocument(final List<MeetingFrequency> meetingFrequencyList, final OutputStream outputStream) throws IOException;
+
+    //Same as above with an extra sheet showing the given weeks side by side
+    void writeDocument(final List<MeetingFrequency> meetingFrequencyList, final List<WeeklyRollup> trend,
+                       final OutputStream outputStream) throws IOException;
 }
@@ -0,0 +1,125 @@
+package meeting.frequency.service.history;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.service.fetch.FetchSlackMessages;
+import meeting.frequency.service.file.JsonFileStore;
+import meeting.frequency.service.history.model.WeeklyRollup;
+import meeting.frequency.service.process.model.MeetingFrequency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Keeps every weekly result in weeks/<week>.json and a small index with the rollup of each week,
+//so trends over many weeks are read from the index instead of fetching and processing old messages again
+public class FileHistoryService implements HistoryService {
+
+    private final static String WEEKS_DIRECTORY = "weeks";
+    private final static String INDEX_FILE_NAME = "rollups.json";
+    private final static ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+
+    private final Path directory;
+    private final int trendWeeks;
+    private final Clock clock;
+    private final Logger logger;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public FileHistoryService(final Path directory, final int trendWeeks, final Logger logger) {
+        this(directory, trendWeeks, Clock.system(ZONE), logger);
+    }
+
+    public FileHistoryService(final Path directory, final int trendWeeks, final Clock clock, final Logger logger) {
+        this.directory = directory;
+        this.trendWeeks = trendWeeks;
+        this.clock = clock;
+        this.logger = logger;
+    }
+
+    @Override
+    public List<WeeklyRollup> recordWeek(final List<MeetingFrequency> meetingFrequencies) {
+
+        final String week = weekOf(windowStart());
+        final WeeklyRollup rollup = WeeklyRollup.of(week, meetingFrequencies);
+
+        //A second run in the same week replaces the earlier result
+        try {
+            JsonFileStore.write(directory.resolve(WEEKS_DIRECTORY).resolve(week + ".json"), meetingFrequencies);
+
+            final Map<String, WeeklyRollup> index = readIndex();
+            index.put(week, rollup);
+            JsonFileStore.write(directory.resolve(INDEX_FILE_NAME), index);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not store history for %s : %s".formatted(week, e.getMessage()));
+            return List.of(rollup);
+        }
+
+        return lastWeeks(trendWeeks);
+    }
+
+    //Rollups of the last weeks up to the reported one, weeks without a stored result are empty
+    public List<WeeklyRollup> lastWeeks(final int weeks) {
+
+        final Map<String, WeeklyRollup> index = readIndex();
+        final LocalDate windowStart = windowStart();
+        final List<WeeklyRollup> rollups = new ArrayList<>(weeks);
+
+        for (int weeksAgo = weeks - 1; weeksAgo >= 0; weeksAgo--) {
+            final String week = weekOf(windowStart.minusWeeks(weeksAgo));
+            rollups.add(index.getOrDefault(week, WeeklyRollup.empty(week)));
+        }
+
+        return rollups;
+    }
+
+    public List<MeetingFrequency> week(final String week) {
+
+        final Path weekFile = directory.resolve(WEEKS_DIRECTORY).resolve(week + ".json");
+
+        if (!Files.exists(weekFile)) {
+            return List.of();
+        }
+
+        try {
+            return objectMapper.readValue(weekFile.toFile(), new TypeReference<List<MeetingFrequency>>() {});
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read history for %s".formatted(week), e);
+        }
+    }
+
+    private Map<String, WeeklyRollup> readIndex() {
+
+        final Path indexFile = directory.resolve(INDEX_FILE_NAME);
+
+        if (!Files.exists(indexFile)) {
+            return new TreeMap<>();
+        }
+
+        try {
+            return new TreeMap<>(objectMapper.readValue(indexFile.toFile(), new TypeReference<Map<String, WeeklyRollup>>() {}));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read history index %s, starting empty : %s".formatted(indexFile, e.getMessage()));
+            return new TreeMap<>();
+        }
+    }
+
+    //A report is filed under the week its window starts in, a Thursday run reads from the Thursday before
+    //and is filed under last week
+    private LocalDate windowStart() {
+        return LocalDate.now(clock.withZone(ZONE)).minusDays(FetchSlackMessages.DAYS_TO_READ);
+    }
+
+    private static String weekOf(final LocalDate date) {
+        return "%d-W%02d".formatted(date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+}
@@ -0,0 +1,12 @@
+package meeting.frequency.service.history;
+
+import meeting.frequency.service.history.model.WeeklyRollup;
+import meeting.frequency.service.process.model.MeetingFrequency;
+
+import java.util.List;
+
+public interface HistoryService {
+
+    //Stores the result of the reported week and returns the rollups of the trend period, oldest week first
+    List<WeeklyRollup> recordWeek(final List<MeetingFrequency> meetingFrequencies);
+}
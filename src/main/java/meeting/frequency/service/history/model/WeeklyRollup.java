@@ -0,0 +1,51 @@
+package meeting.frequency.service.history.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import meeting.frequency.service.process.model.MeetingFrequency;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+//Meeting counts of one ISO week (e.g. "2025-W14") per person, office and company.
+//People are counted by user id so namesakes stay apart, names holds the name each user was reported under
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record WeeklyRollup(String week,
+                           Map<String, Integer> people,
+                           Map<String, Integer> offices,
+                           Map<String, Integer> companies,
+                           Map<String, String> names) {
+
+    //Rollups stored before people were counted by user id have no names, their people are keyed by name
+    public WeeklyRollup {
+        names = names == null ? Map.of() : names;
+    }
+
+    public static WeeklyRollup empty(final String week) {
+        return new WeeklyRollup(week, Map.of(), Map.of(), Map.of(), Map.of());
+    }
+
+    public static WeeklyRollup of(final String week, final List<MeetingFrequency> meetingFrequencies) {
+
+        final Map<String, Integer> people = new TreeMap<>();
+        final Map<String, Integer> offices = new TreeMap<>();
+        final Map<String, Integer> companies = new TreeMap<>();
+        final Map<String, String> names = new TreeMap<>();
+
+        for (MeetingFrequency meetingFrequency : meetingFrequencies) {
+            //Results the model could not tie to a user id are counted by name
+            final String person = meetingFrequency.userId() == null ? meetingFrequency.name() : meetingFrequency.userId();
+
+            people.merge(person, meetingFrequency.meetings(), Integer::sum);
+            names.put(person, meetingFrequency.name());
+            offices.merge(meetingFrequency.office(), meetingFrequency.meetings(), Integer::sum);
+
+            //Every listed company counts as one meeting with that company
+            for (String company : meetingFrequency.companies()) {
+                companies.merge(company, 1, Integer::sum);
+            }
+        }
+
+        return new WeeklyRollup(week, people, offices, companies, names);
+    }
+}
@@ -0,0 +1,21 @@
+package meeting.frequency.service.integration;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Waits between retries of Slack and OpenAI requests
+public final class Backoff {
+
+    private final static Duration BASE_BACKOFF = Duration.ofSeconds(1);
+    private final static Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private Backoff() {}
+
+    //Exponential backoff with jitter in nanos, between half and all of base * 2^(attempt - 1)
+    public static long nanos(final int attempt) {
+
+        final long delay = Math.min(MAX_BACKOFF.toNanos(), BASE_BACKOFF.toNanos() << Math.min(attempt - 1, 16));
+
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
@@ -0,0 +1,108 @@
+package meeting.frequency.service.integration;
+
+import com.openai.client.OpenAIClient;
+import com.openai.client.okhttp.OpenAIOkHttpClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+//One transport for the whole run so connections and TLS sessions to Slack and OpenAI are reused between services
+public final class HttpTransport {
+
+    public final static Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public final static Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    //Chat completions for a full chunk can take a while
+    public final static Duration OPENAI_TIMEOUT = Duration.ofMinutes(2);
+
+    private static HttpClient httpClient;
+    private static ExecutorService executor;
+    private final static Map<String, OpenAIClient> OPENAI_CLIENTS = new HashMap<>();
+
+    private HttpTransport() {}
+
+    public static synchronized HttpClient httpClient() {
+
+        if (httpClient == null) {
+            httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2) //Falls back to HTTP/1.1 when the server does not offer h2
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .executor(executor())
+                    .build();
+        }
+
+        return httpClient;
+    }
+
+    //Daemon threads so an idle pool never keeps the function host from shutting down
+    public static synchronized ExecutorService executor() {
+
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "http-transport");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return executor;
+    }
+
+    //The OpenAI SDK brings its own OkHttp transport, sharing the client shares its connection pool.
+    //OpenAIService retries each chunk itself, SDK retries would multiply its attempts
+    public static synchronized OpenAIClient openAIClient(final String apiKey, final String baseUrl) {
+
+        //The key is only kept as a hash, a rotated key still gets a client of its own
+        return OPENAI_CLIENTS.computeIfAbsent(baseUrl + " " + sha256(apiKey), key -> OpenAIOkHttpClient.builder()
+                .apiKey(apiKey)
+                .baseUrl(baseUrl)
+                .timeout(OPENAI_TIMEOUT)
+                .maxRetries(0)
+                .build());
+    }
+
+    private static String sha256(final String value) {
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Like BodyHandlers.ofString() but also reads gzip encoded responses
+    public static HttpResponse.BodyHandler<String> ofString() {
+
+        return responseInfo -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+            try (InputStream inputStream = decode(responseInfo, new ByteArrayInputStream(bytes))) {
+                return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public static InputStream decode(final HttpResponse.ResponseInfo responseInfo, final InputStream body) throws IOException {
+
+        final boolean gzip = responseInfo.headers()
+                .firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+
+        return gzip ? new GZIPInputStream(body) : body;
+    }
+}
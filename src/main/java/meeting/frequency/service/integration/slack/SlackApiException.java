@@ -0,0 +1,18 @@
+package meeting.frequency.service.integration.slack;
+
+//Slack answered with ok=false, error holds the code Slack gave, e.g. "ratelimited" or "channel_not_found"
+public class SlackApiException extends RuntimeException {
+
+    private final static long serialVersionUID = 1L;
+
+    private final String error;
+
+    public SlackApiException(final String error) {
+        super("Slack responded with error : %s".formatted(error));
+        this.error = error;
+    }
+
+    public String error() {
+        return error;
+    }
+}
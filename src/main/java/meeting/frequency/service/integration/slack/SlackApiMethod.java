@@ -0,0 +1,24 @@
+package meeting.frequency.service.integration.slack;
+
+//Web API methods used by the client, the rate limit tier Slack documents for each of them and whether a request
+//that failed after it may have reached Slack can be sent again
+public enum SlackApiMethod {
+    CONVERSATIONS_HISTORY("conversations.history", 50, true),
+    CONVERSATIONS_REPLIES("conversations.replies", 50, true),
+    USERS_INFO("users.info", 100, true),
+    USERS_LIST("users.list", 20, true),
+    USERS_PROFILE_GET("users.profile.get", 100, true),
+    FILES_GET_UPLOAD_URL("files.getUploadURLExternal", 100, true), //A retry only leaves an unused upload URL behind
+    FILES_UPLOAD("files.upload", 100, false), //Upload URL handed out by files.getUploadURLExternal, not a Web API method
+    FILES_COMPLETE_UPLOAD("files.completeUploadExternal", 100, false); //Shares the file, a retry can post it twice
+
+    public final String methodName;
+    public final int requestsPerMinute;
+    public final boolean idempotent;
+
+    SlackApiMethod(final String methodName, final int requestsPerMinute, final boolean idempotent) {
+        this.methodName = methodName;
+        this.requestsPerMinute = requestsPerMinute;
+        this.idempotent = idempotent;
+    }
+}
@@ -0,0 +1,57 @@
+package meeting.frequency.service.integration.slack;
+
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+import meeting.frequency.service.integration.slack.pojo.SlackHistoryResponse;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+//Walks conversations.history one page at a time, the next page is only requested once the current one is consumed
+class SlackHistoryIterator implements Iterator<MessagesItem> {
+
+    private final Function<String, SlackHistoryResponse> fetchPage;
+
+    private Iterator<MessagesItem> currentPage = Collections.emptyIterator();
+    private String nextCursor;
+    private boolean lastPageFetched;
+
+    SlackHistoryIterator(final Function<String, SlackHistoryResponse> fetchPage) {
+        this.fetchPage = fetchPage;
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        while (!currentPage.hasNext() && !lastPageFetched) {
+            fetchNextPage();
+        }
+
+        return currentPage.hasNext();
+    }
+
+    @Override
+    public MessagesItem next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return currentPage.next();
+    }
+
+    private void fetchNextPage() {
+
+        final SlackHistoryResponse page = fetchPage.apply(nextCursor);
+
+        //Stopping here would look like the end of history and silently truncate the report
+        if (!page.ok()) {
+            throw new SlackApiException(page.error());
+        }
+
+        currentPage = page.messages() == null ? Collections.emptyIterator() : page.messages().iterator();
+        nextCursor = page.nextCursor();
+        lastPageFetched = !page.hasMore() || nextCursor == null || nextCursor.isBlank();
+    }
+}
@@ -0,0 +1,141 @@
+package meeting.frequency.service.integration.slack;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import meeting.frequency.service.integration.HttpTransport;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+import meeting.frequency.service.integration.slack.pojo.ResponseMetadata;
+import meeting.frequency.service.integration.slack.pojo.SlackHistoryResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+//Reads conversations.history and conversations.replies straight from the response stream and keeps only user, ts, text,
+//thread fields and whether blocks exist, the block trees are skipped token by token instead of being bound
+class SlackHistoryParser {
+
+    private final JsonFactory jsonFactory;
+
+    SlackHistoryParser(final JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    //Mapped to a supplier so the stream is read by the caller and not on the HTTP client's thread
+    HttpResponse.BodyHandler<Supplier<SlackHistoryResponse>> bodyHandler() {
+
+        return responseInfo -> {
+            if (responseInfo.statusCode() / 100 != 2) {
+                //Retried or reported by the scheduler, the body is not needed
+                return HttpResponse.BodySubscribers.replacing(
+                        () -> new SlackHistoryResponse(false, List.of(), false, "http_" + responseInfo.statusCode(), null));
+            }
+
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+                    body -> () -> {
+                        try (InputStream inputStream = HttpTransport.decode(responseInfo, body)) {
+                            return parse(inputStream);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        };
+    }
+
+    SlackHistoryResponse parse(final InputStream body) throws IOException {
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object from Slack");
+            }
+
+            boolean ok = false;
+            boolean hasMore = false;
+            String error = null;
+            List<MessagesItem> messages = null;
+            ResponseMetadata responseMetadata = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                final JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "ok" -> ok = value == JsonToken.VALUE_TRUE;
+                    case "has_more" -> hasMore = value == JsonToken.VALUE_TRUE;
+                    case "error" -> error = parser.getValueAsString();
+                    case "messages" -> messages = value == JsonToken.START_ARRAY ? readMessages(parser) : null;
+                    case "response_metadata" -> responseMetadata = value == JsonToken.START_OBJECT ? readResponseMetadata(parser) : null;
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return new SlackHistoryResponse(ok, messages, hasMore, error, responseMetadata);
+        }
+    }
+
+    private List<MessagesItem> readMessages(final JsonParser parser) throws IOException {
+
+        final List<MessagesItem> messages = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String text = null;
+            String type = null;
+            String user = null;
+            String ts = null;
+            String threadTs = null;
+            int replyCount = 0;
+            String latestReply = null;
+            boolean hasBlocks = false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                final JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "text" -> text = parser.getValueAsString();
+                    case "type" -> type = parser.getValueAsString();
+                    case "user" -> user = parser.getValueAsString();
+                    case "ts" -> ts = parser.getValueAsString();
+                    case "thread_ts" -> threadTs = parser.getValueAsString();
+                    case "reply_count" -> replyCount = parser.getValueAsInt();
+                    case "latest_reply" -> latestReply = parser.getValueAsString();
+                    case "blocks" -> {
+                        hasBlocks = value != JsonToken.VALUE_NULL;
+                        parser.skipChildren();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+
+            //Only the presence of blocks is used, it tells posts apart from "xxx has joined the channel"
+            messages.add(new MessagesItem(text, type, user, ts, hasBlocks ? List.of() : null, threadTs, replyCount,
+                    latestReply));
+        }
+
+        return messages;
+    }
+
+    private ResponseMetadata readResponseMetadata(final JsonParser parser) throws IOException {
+
+        String nextCursor = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+
+            if ("next_cursor".equals(field)) {
+                nextCursor = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return new ResponseMetadata(nextCursor);
+    }
+}
@@ -2,8 +2,13 @@ package meeting.frequency.service.integration.slack;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.ParameterService;
+import meeting.frequency.parameter.SlackChannel;
 import meeting.frequency.secret.SecretService;
 import meeting.frequency.secret.model.SlackSecrets;
+import meeting.frequency.service.integration.HttpTransport;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
 import meeting.frequency.service.integration.slack.pojo.SlackHistoryRequest;
 import meeting.frequency.service.integration.slack.pojo.SlackHistoryResponse;
 import meeting.frequency.service.integration.slack.pojo.upload.SlackUploadCompleteRequest;
@@ -11,72 +16,182 @@ import meeting.frequency.service.integration.slack.pojo.upload.SlackUploadComple
 import meeting.frequency.service.integration.slack.pojo.upload.SlackUploadRequest;
 import meeting.frequency.service.integration.slack.pojo.upload.SlackUploadStartResponse;
 import meeting.frequency.service.integration.slack.pojo.upload.UploadFile;
+import meeting.frequency.service.integration.slack.pojo.user.Profile;
 import meeting.frequency.service.integration.slack.pojo.user.SlackUserInfoResponse;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserListResponse;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserProfileResponse;
 import meeting.frequency.service.integration.slack.pojo.user.User;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SlackHttpClient {
 
     private final SlackSecrets slackSecrets;
     private final HttpClient httpClient;
+    private final SlackRequestScheduler requestScheduler;
+    private final String baseUrl;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SlackHistoryParser historyParser = new SlackHistoryParser(objectMapper.getFactory());
     private final Logger logger;
 
-    private static final String HISTORY_URL = "https://slack.com/api/conversations.history";
-    private static final String USER_INFO_URL = "https://slack.com/api/users.info";
-    private static final String GET_UPLOAD_URL_API = "https://slack.com/api/files.getUploadURLExternal";
-    private static final String COMPLETE_UPLOAD_API = "https://slack.com/api/files.completeUploadExternal";
+    //Web API methods are resolved against this, can be pointed at a local stand-in server to time full runs offline
+    private static final String DEFAULT_BASE_URL = "https://slack.com/api";
 
+    //Page size, the remaining history is read by following response_metadata.next_cursor
     private final static int LIMIT_HISTORY_RESPONSE = 999;
+    private final static int LIMIT_USER_LIST_RESPONSE = 200;
+    private final static int LIMIT_REPLIES_RESPONSE = 200;
+    private final static int MAX_REQUEST_ATTEMPTS = 5;
 
-    public SlackHttpClient(final SecretService secretService, final Logger logger) {
+    public SlackHttpClient(final SecretService secretService, final ParameterService parameterService, final Logger logger) {
+        this(secretService, parameterService, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public SlackHttpClient(final SecretService secretService, final ParameterService parameterService, final Metrics metrics,
+                           final Logger logger) {
         this.slackSecrets = secretService.fetchSlackSecrets();
-        this.httpClient = HttpClient.newBuilder().build();
+        this.httpClient = HttpTransport.httpClient();
+        this.requestScheduler = SlackRequestScheduler.shared().withMetrics(metrics);
+        this.baseUrl = parameterService.slackBaseUrl();
         this.logger = logger;
     }
 
     public SlackHttpClient(final SlackSecrets slackSecrets, final HttpClient httpClient, final Logger logger) {
+        this(slackSecrets, httpClient, new SlackRequestScheduler(MAX_REQUEST_ATTEMPTS, logger), logger);
+    }
+
+    public SlackHttpClient(final SlackSecrets slackSecrets, final HttpClient httpClient,
+                           final SlackRequestScheduler requestScheduler, final Logger logger) {
+        this(slackSecrets, httpClient, requestScheduler, DEFAULT_BASE_URL, logger);
+    }
+
+    public SlackHttpClient(final SlackSecrets slackSecrets, final HttpClient httpClient,
+                           final SlackRequestScheduler requestScheduler, final String baseUrl, final Logger logger) {
         this.slackSecrets = slackSecrets;
         this.httpClient = httpClient;
+        this.requestScheduler = requestScheduler;
+        this.baseUrl = baseUrl;
         this.logger = logger;
     }
 
+    public String channelId() {
+        return slackSecrets.channelId();
+    }
+
+    //Same token, transport and rate limits, reading from and uploading to another channel
+    public SlackHttpClient forChannel(final SlackChannel slackChannel) {
+        return new SlackHttpClient(slackSecrets.forChannel(slackChannel.channelId(), slackChannel.sendToChannelId()),
+                httpClient, requestScheduler, baseUrl, logger);
+    }
+
+    public Stream<MessagesItem> streamSlackHistory(final long startTimestamp){
+
+        //Pin the end of the window so every page is read against the same range
+        final long endTimestamp = ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).toEpochSecond();
+
+        final SlackHistoryIterator historyIterator =
+                new SlackHistoryIterator(cursor -> fetchSlackHistory(startTimestamp, endTimestamp, cursor));
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(historyIterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     public SlackHistoryResponse fetchSlackHistory(final long startTimestamp){
+
+        return fetchSlackHistory(startTimestamp, ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).toEpochSecond(), null);
+    }
+
+    public SlackHistoryResponse fetchSlackHistory(final long startTimestamp, final long endTimestamp, final String cursor){
         try {
 
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI(HISTORY_URL))
-                    .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token())
-                    .POST(HttpRequest.BodyPublishers.ofString(getHistoryRequestBodyAsString(startTimestamp)))
+                    .uri(apiUri(SlackApiMethod.CONVERSATIONS_HISTORY, ""))
+                    .timeout(HttpTransport.REQUEST_TIMEOUT)
+                    .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token(),
+                            "Accept-Encoding", "gzip")
+                    .POST(HttpRequest.BodyPublishers.ofString(getHistoryRequestBodyAsString(startTimestamp, endTimestamp, cursor)))
                     .build();
 
-            final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            final SlackHistoryResponse slackHistoryResponse = objectMapper.readValue(response.body(), SlackHistoryResponse.class);
+            final SlackHistoryResponse slackHistoryResponse = requestScheduler
+                    .send(httpClient, SlackApiMethod.CONVERSATIONS_HISTORY, request, historyParser.bodyHandler())
+                    .body()
+                    .get();
 
             if(slackHistoryResponse.ok()){
                 return slackHistoryResponse;
             }
 
             logger.log(Level.SEVERE, "Error when fetching channel history : %s".formatted(slackHistoryResponse.error()));
-            return new SlackHistoryResponse(false, List.of(), false, slackHistoryResponse.error());
+            return new SlackHistoryResponse(false, List.of(), false, slackHistoryResponse.error(), null);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Could not fetch channel history", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    //Replies posted from startTimestamp on, the parent message comes first on the first page
+    public Stream<MessagesItem> streamSlackReplies(final String threadTs, final long startTimestamp){
+
+        final long endTimestamp = ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).toEpochSecond();
+
+        final SlackHistoryIterator repliesIterator =
+                new SlackHistoryIterator(cursor -> fetchSlackReplies(threadTs, startTimestamp, endTimestamp, cursor));
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(repliesIterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public SlackHistoryResponse fetchSlackReplies(final String threadTs, final long startTimestamp, final long endTimestamp,
+                                                  final String cursor){
+        try {
+
+            final String query = "?channel=" + URLEncoder.encode(slackSecrets.channelId(), StandardCharsets.UTF_8)
+                                 + "&ts=" + URLEncoder.encode(threadTs, StandardCharsets.UTF_8)
+                                 + "&oldest=" + startTimestamp
+                                 + "&latest=" + endTimestamp
+                                 + "&limit=" + LIMIT_REPLIES_RESPONSE
+                                 + (cursor == null || cursor.isBlank() ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(apiUri(SlackApiMethod.CONVERSATIONS_REPLIES, query))
+                    .timeout(HttpTransport.REQUEST_TIMEOUT)
+                    .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token(),
+                            "Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+
+            final SlackHistoryResponse slackRepliesResponse = requestScheduler
+                    .send(httpClient, SlackApiMethod.CONVERSATIONS_REPLIES, request, historyParser.bodyHandler())
+                    .body()
+                    .get();
+
+            if(slackRepliesResponse.ok()){
+                return slackRepliesResponse;
+            }
+
+            logger.log(Level.SEVERE, "Error when fetching replies of thread %s : %s".formatted(threadTs, slackRepliesResponse.error()));
+            return new SlackHistoryResponse(false, List.of(), false, slackRepliesResponse.error(), null);
         } catch (Exception e) {
-            e.printStackTrace();
             throw new RuntimeException(e);
         }
     }
@@ -85,12 +200,14 @@ public class SlackHttpClient {
         try {
 
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI(USER_INFO_URL + "?user=" + userId))
-                    .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token())
+                    .uri(apiUri(SlackApiMethod.USERS_INFO, "?user=" + URLEncoder.encode(userId, StandardCharsets.UTF_8)))
+                    .timeout(HttpTransport.REQUEST_TIMEOUT)
+                    .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token(),
+                            "Accept-Encoding", "gzip")
                     .GET()
                     .build();
 
-            final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            final HttpResponse<String> response = send(SlackApiMethod.USERS_INFO, request);
 
             final SlackUserInfoResponse slackUserInfoResponse = objectMapper.readValue(response.body(), SlackUserInfoResponse.class);
 
@@ -102,7 +219,65 @@ public class SlackHttpClient {
                     .formatted(userId, slackUserInfoResponse.error()));
             return new SlackUserInfoResponse(false, User.EMPTY_USER(), slackUserInfoResponse.error());
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "Could not fetch user info on userId %s".formatted(userId), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public SlackUserProfileResponse fetchUserProfile(final String userId){
+        try {
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(apiUri(SlackApiMethod.USERS_PROFILE_GET, "?user=" + URLEncoder.encode(userId, StandardCharsets.UTF_8)))
+                    .timeout(HttpTransport.REQUEST_TIMEOUT)
+                    .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token(),
+                            "Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+
+            final HttpResponse<String> response = send(SlackApiMethod.USERS_PROFILE_GET, request);
+
+            final SlackUserProfileResponse slackUserProfileResponse = objectMapper.readValue(response.body(), SlackUserProfileResponse.class);
+
+            if(slackUserProfileResponse.ok()){
+                return slackUserProfileResponse;
+            }
+
+            logger.log(Level.SEVERE, "Could not fetch profile on userId %s, got the following error : %s"
+                    .formatted(userId, slackUserProfileResponse.error()));
+            return new SlackUserProfileResponse(false, Profile.EMPTY_PROFILE(), slackUserProfileResponse.error());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public SlackUserListResponse fetchUserList(final String cursor){
+        try {
+
+            final String query = cursor == null || cursor.isBlank()
+                    ? "?limit=" + LIMIT_USER_LIST_RESPONSE
+                    : "?limit=" + LIMIT_USER_LIST_RESPONSE + "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(apiUri(SlackApiMethod.USERS_LIST, query))
+                    .timeout(HttpTransport.REQUEST_TIMEOUT)
+                    .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token(),
+                            "Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+
+            final HttpResponse<String> response = send(SlackApiMethod.USERS_LIST, request);
+
+            final SlackUserListResponse slackUserListResponse = objectMapper.readValue(response.body(), SlackUserListResponse.class);
+
+            if(slackUserListResponse.ok()){
+                return slackUserListResponse;
+            }
+
+            logger.log(Level.SEVERE, "Could not fetch user list, got the following error : %s".formatted(slackUserListResponse.error()));
+            return new SlackUserListResponse(false, List.of(), slackUserListResponse.error(), null);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Could not fetch user list", e);
             throw new RuntimeException(e);
         }
     }
@@ -112,13 +287,30 @@ public class SlackHttpClient {
 
             final SlackUploadStartResponse startUploadResponse = requestUploadUrl(file.getName(), file.length());
 
-            if(uploadFileToUrl(startUploadResponse.upload_url(), file)){
+            if(uploadToUrl(startUploadResponse.upload_url(), HttpRequest.BodyPublishers.ofFile(Paths.get(file.getPath())))){
                 return finalizeUpload(startUploadResponse.file_id());
             }
 
             return false;
         } catch (URISyntaxException | IOException | InterruptedException e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "Could not upload file %s".formatted(file.getName()), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    //Slack needs the length before handing out an upload url, so the content is sent from memory rather than streamed
+    public boolean uploadFile(final String fileName, final byte[] content){
+        try {
+
+            final SlackUploadStartResponse startUploadResponse = requestUploadUrl(fileName, content.length);
+
+            if(uploadToUrl(startUploadResponse.upload_url(), HttpRequest.BodyPublishers.ofByteArray(content))){
+                return finalizeUpload(startUploadResponse.file_id());
+            }
+
+            return false;
+        } catch (URISyntaxException | IOException | InterruptedException e) {
+            logger.log(Level.SEVERE, "Could not upload file %s".formatted(fileName), e);
             throw new RuntimeException(e);
         }
     }
@@ -130,14 +322,16 @@ public class SlackHttpClient {
         final SlackUploadRequest slackUploadRequest = new SlackUploadRequest(fileName, fileSize);
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(new URI(GET_UPLOAD_URL_API))
-                .headers("Content-Type","application/x-www-form-urlencoded", "Authorization", "Bearer " + slackSecrets.token())
+                .uri(apiUri(SlackApiMethod.FILES_GET_UPLOAD_URL, ""))
+                .timeout(HttpTransport.REQUEST_TIMEOUT)
+                .headers("Content-Type","application/x-www-form-urlencoded", "Authorization", "Bearer " + slackSecrets.token(),
+                        "Accept-Encoding", "gzip")
                 .POST(HttpRequest.BodyPublishers.ofString(
                         "filename=%s&length=%s".formatted(slackUploadRequest.filename(), slackUploadRequest.length())
                 ))
                 .build();
 
-        final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        final HttpResponse<String> response = send(SlackApiMethod.FILES_GET_UPLOAD_URL, request);
 
         final SlackUploadStartResponse slackUploadStartResponse = objectMapper.readValue(response.body(), SlackUploadStartResponse.class);
 
@@ -149,24 +343,24 @@ public class SlackHttpClient {
         throw new IllegalStateException("Error when fetching upload url");
     }
 
-    private String getHistoryRequestBodyAsString(final long startTimestamp) throws JsonProcessingException {
+    private String getHistoryRequestBodyAsString(final long startTimestamp, final long endTimestamp,
+                                                 final String cursor) throws JsonProcessingException {
 
         return objectMapper
                 .writeValueAsString(new SlackHistoryRequest(slackSecrets.channelId(), String.valueOf(startTimestamp),
-                        String.valueOf(ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).toEpochSecond()), LIMIT_HISTORY_RESPONSE));
+                        String.valueOf(endTimestamp), LIMIT_HISTORY_RESPONSE, cursor));
     }
 
-    private boolean uploadFileToUrl(final String uploadUrl,final File file) throws URISyntaxException, IOException, InterruptedException {
-
-        Path filePath = Paths.get(file.getPath());
+    private boolean uploadToUrl(final String uploadUrl, final HttpRequest.BodyPublisher content) throws URISyntaxException, IOException, InterruptedException {
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(new URI(uploadUrl))
+                .timeout(HttpTransport.REQUEST_TIMEOUT)
                 .headers("Content-Type","application/octet-stream")
-                .POST(HttpRequest.BodyPublishers.ofFile(filePath))
+                .POST(content)
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(SlackApiMethod.FILES_UPLOAD, request);
 
         if(response.statusCode() == 200){
             return true;
@@ -186,12 +380,14 @@ public class SlackHttpClient {
                 slackSecrets.sendToChannelId());
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(new URI(COMPLETE_UPLOAD_API))
-                .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token())
+                .uri(apiUri(SlackApiMethod.FILES_COMPLETE_UPLOAD, ""))
+                .timeout(HttpTransport.REQUEST_TIMEOUT)
+                .headers("Content-Type","application/json", "Authorization", "Bearer " + slackSecrets.token(),
+                        "Accept-Encoding", "gzip")
                 .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(test)))
                 .build();
 
-        final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        final HttpResponse<String> response = send(SlackApiMethod.FILES_COMPLETE_UPLOAD, request);
 
         final SlackUploadCompleteResponse slackUploadCompleteResponse = objectMapper.readValue(response.body(), SlackUploadCompleteResponse.class);
 
@@ -204,5 +400,13 @@ public class SlackHttpClient {
         return false;
     }
 
+    private URI apiUri(final SlackApiMethod method, final String query) throws URISyntaxException {
+
+        return new URI(baseUrl + "/" + method.methodName + query);
+    }
 
+    private HttpResponse<String> send(final SlackApiMethod method, final HttpRequest request) throws IOException, InterruptedException {
+
+        return requestScheduler.send(httpClient, method, request, HttpTransport.ofString());
+    }
 }
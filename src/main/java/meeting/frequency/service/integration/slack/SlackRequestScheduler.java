@@ -0,0 +1,159 @@
+package meeting.frequency.service.integration.slack;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.service.integration.Backoff;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Paces requests per Slack API method and retries rate limited (429) requests. Failed (5xx, I/O) requests are only
+//retried for idempotent methods, Slack may have acted on them before failing
+public class SlackRequestScheduler {
+
+    private final static int DEFAULT_MAX_ATTEMPTS = 5;
+
+    //Slack limits are per app and method, so every client in the process shares the same buckets
+    private final static SlackRequestScheduler SHARED =
+            new SlackRequestScheduler(DEFAULT_MAX_ATTEMPTS, Logger.getLogger(SlackRequestScheduler.class.getName()));
+
+    private final Map<SlackApiMethod, TokenBucket> buckets;
+    private final int maxAttempts;
+    private final Metrics metrics;
+    private final Logger logger;
+
+    public SlackRequestScheduler(final int maxAttempts, final Logger logger) {
+        this(maxAttempts, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public SlackRequestScheduler(final int maxAttempts, final Metrics metrics, final Logger logger) {
+        this(buckets(), maxAttempts, metrics, logger);
+    }
+
+    private SlackRequestScheduler(final Map<SlackApiMethod, TokenBucket> buckets, final int maxAttempts,
+                                  final Metrics metrics, final Logger logger) {
+        this.buckets = buckets;
+        this.maxAttempts = maxAttempts;
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    public static SlackRequestScheduler shared() {
+        return SHARED;
+    }
+
+    //Same buckets, requests are recorded into the metrics of one run
+    public SlackRequestScheduler withMetrics(final Metrics metrics) {
+        return new SlackRequestScheduler(buckets, maxAttempts, metrics, logger);
+    }
+
+    private static Map<SlackApiMethod, TokenBucket> buckets() {
+
+        final Map<SlackApiMethod, TokenBucket> buckets = new EnumMap<>(SlackApiMethod.class);
+
+        for (SlackApiMethod method : SlackApiMethod.values()) {
+            buckets.put(method, new TokenBucket(method.requestsPerMinute));
+        }
+
+        return buckets;
+    }
+
+    public <T> HttpResponse<T> send(final HttpClient httpClient, final SlackApiMethod method, final HttpRequest request,
+                                    final HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+
+        final TokenBucket bucket = buckets.get(method);
+        //e.g. http.slack.users.info, with .requests, .retries, .rateLimited and .failed counters
+        final String metric = "http.slack." + method.methodName;
+        //Waits for the rate limit are counted apart, so they do not show up as request latency
+        final String pacingMetric = "pacing.slack." + method.methodName;
+
+        for (int attempt = 1; ; attempt++) {
+
+            final long wait = bucket.reserve();
+            if (wait > 0) {
+                metrics.increment(pacingMetric);
+                metrics.add(pacingMetric + ".millis", TimeUnit.NANOSECONDS.toMillis(wait));
+            }
+            sleep(wait);
+
+            if (attempt > 1) {
+                metrics.increment(metric + ".retries");
+            }
+            metrics.increment(metric + ".requests");
+
+            final long sent = System.nanoTime();
+            final HttpResponse<T> response;
+            try {
+                response = httpClient.send(request, bodyHandler);
+            } catch (IOException e) {
+                metrics.recordSince(metric, sent);
+                metrics.increment(metric + ".failed");
+
+                if (!method.idempotent || attempt >= maxAttempts) {
+                    throw e;
+                }
+
+                logger.log(Level.WARNING, "%s failed on attempt %d, retrying : %s".formatted(method.methodName, attempt, e.getMessage()));
+                sleep(Backoff.nanos(attempt));
+                continue;
+            }
+            metrics.recordSince(metric, sent);
+
+            if (response.statusCode() == 429) {
+                metrics.increment(metric + ".rateLimited");
+
+                if (attempt >= maxAttempts) {
+                    throw new IllegalStateException("Rate limited by Slack on %s after %d attempts".formatted(method.methodName, attempt));
+                }
+
+                final long retryAfter = retryAfter(response, attempt);
+                logger.log(Level.WARNING, "Rate limited by Slack on %s, retrying in %d ms"
+                        .formatted(method.methodName, TimeUnit.NANOSECONDS.toMillis(retryAfter)));
+                bucket.pause(retryAfter);
+                continue;
+            }
+
+            if (response.statusCode() >= 500) {
+                metrics.increment(metric + ".failed");
+            }
+
+            if (response.statusCode() >= 500 && method.idempotent && attempt < maxAttempts) {
+                logger.log(Level.WARNING, "%s returned %d on attempt %d, retrying".formatted(method.methodName, response.statusCode(), attempt));
+                sleep(Backoff.nanos(attempt));
+                continue;
+            }
+
+            return response;
+        }
+    }
+
+    private long retryAfter(final HttpResponse<?> response, final int attempt) {
+
+        return response.headers()
+                .firstValue("Retry-After")
+                .map(String::trim)
+                .flatMap(seconds -> {
+                    try {
+                        return Optional.of(TimeUnit.SECONDS.toNanos(Long.parseLong(seconds)));
+                    } catch (NumberFormatException e) {
+                        return Optional.empty();
+                    }
+                })
+                .orElseGet(() -> Backoff.nanos(attempt));
+    }
+
+    private void sleep(final long nanos) throws InterruptedException {
+
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package meeting.frequency.service.integration.slack;
+
+//Refills continuously up to a minute worth of requests, callers reserve a token and are told how long to wait for it
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    TokenBucket(final int requestsPerMinute) {
+        this.capacity = requestsPerMinute;
+        this.tokensPerNano = requestsPerMinute / 60_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    synchronized long reserve() {
+
+        final long now = System.nanoTime();
+        refill(now);
+
+        tokens -= 1;
+
+        final long waitForToken = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+
+        return Math.max(waitForToken, pausedUntil - now);
+    }
+
+    //Called on a 429, nothing for this method is sent again before Slack says it is fine
+    synchronized void pause(final long nanos) {
+
+        final long now = System.nanoTime();
+        refill(now);
+
+        pausedUntil = Math.max(pausedUntil, now + nanos);
+        tokens = Math.min(tokens, 0);
+    }
+
+    private void refill(final long now) {
+
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -1,5 +1,6 @@
 package meeting.frequency.service.integration.slack.pojo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -10,5 +11,18 @@ public record MessagesItem(@JsonProperty("text") String text,
 						   @JsonProperty("type") String type,
 						   @JsonProperty("user") String user,
 						   @JsonProperty("ts") String ts,
-						   @JsonProperty("blocks") List<BlocksItem> blocks) {
-}
\ No newline at end of file
+						   @JsonProperty("blocks") List<BlocksItem> blocks,
+						   @JsonProperty("thread_ts") String threadTs,
+						   @JsonProperty("reply_count") int replyCount,
+						   @JsonProperty("latest_reply") String latestReply) {
+
+	public MessagesItem(final String text, final String type, final String user, final String ts, final List<BlocksItem> blocks) {
+		this(text, type, user, ts, blocks, null, 0, null);
+	}
+
+	//The parent of a thread, its replies are read with conversations.replies
+	@JsonIgnore
+	public boolean hasReplies() {
+		return replyCount > 0 && ts != null && ts.equals(threadTs);
+	}
+}
@@ -0,0 +1,9 @@
+package meeting.frequency.service.integration.slack.pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ResponseMetadata(@JsonProperty("next_cursor") String nextCursor) {
+
+}
@@ -1,5 +1,8 @@
 package meeting.frequency.service.integration.slack.pojo;
 
-public record SlackHistoryRequest(String channel, String oldest, String latest, int limit) {
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SlackHistoryRequest(String channel, String oldest, String latest, int limit, String cursor) {
 
 }
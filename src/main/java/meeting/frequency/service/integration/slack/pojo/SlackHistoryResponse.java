@@ -1,13 +1,18 @@
 package meeting.frequency.service.integration.slack.pojo;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record SlackHistoryResponse(boolean ok,
 								  List<MessagesItem> messages,
-								  boolean hasMore,
-								  String error){
+								  @JsonProperty("has_more") boolean hasMore,
+								  String error,
+								  @JsonProperty("response_metadata") ResponseMetadata responseMetadata){
 
-}
\ No newline at end of file
+	public String nextCursor(){
+		return responseMetadata == null ? null : responseMetadata.nextCursor();
+	}
+}
@@ -0,0 +1,14 @@
+package meeting.frequency.service.integration.slack.pojo.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Map;
+
+//Custom profile fields are keyed by field id, e.g. {"Xf06054AAA": {"value": "Göteborg", "alt": ""}}
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Profile(String title, Map<String, ProfileField> fields) {
+
+    public static Profile EMPTY_PROFILE() {
+        return new Profile(null, Map.of());
+    }
+}
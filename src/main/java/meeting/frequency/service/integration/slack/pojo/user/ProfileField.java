@@ -0,0 +1,8 @@
+package meeting.frequency.service.integration.slack.pojo.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ProfileField(String value, String alt) {
+
+}
@@ -0,0 +1,18 @@
+package meeting.frequency.service.integration.slack.pojo.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import meeting.frequency.service.integration.slack.pojo.ResponseMetadata;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SlackUserListResponse(boolean ok,
+                                    List<User> members,
+                                    String error,
+                                    @JsonProperty("response_metadata") ResponseMetadata responseMetadata) {
+
+    public String nextCursor(){
+        return responseMetadata == null ? null : responseMetadata.nextCursor();
+    }
+}
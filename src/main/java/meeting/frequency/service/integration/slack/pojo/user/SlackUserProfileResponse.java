@@ -0,0 +1,8 @@
+package meeting.frequency.service.integration.slack.pojo.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SlackUserProfileResponse(boolean ok, Profile profile, String error) {
+
+}
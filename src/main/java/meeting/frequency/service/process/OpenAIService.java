@@ -3,13 +3,18 @@ package meeting.frequency.service.process;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openai.client.OpenAIClient;
-import com.openai.client.okhttp.OpenAIOkHttpClient;
+import com.openai.errors.RateLimitException;
 import com.openai.models.ChatModel;
 import com.openai.models.ResponseFormatJsonSchema;
 import com.openai.models.chat.completions.ChatCompletion;
 import com.openai.models.chat.completions.ChatCompletionCreateParams;
+import meeting.frequency.Lazy;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.ParameterService;
 import meeting.frequency.secret.SecretService;
 import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.integration.Backoff;
+import meeting.frequency.service.integration.HttpTransport;
 import meeting.frequency.service.process.model.MeetingFrequency;
 import meeting.frequency.service.process.model.MeetingFrequencyItems;
 
@@ -21,24 +26,84 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 public class OpenAIService implements ProcessMessageService{
 
-    private final OpenAIClient openAIClient;
+    private final static ChatModel MODEL = ChatModel.GPT_4O_MINI;
+    //Bump when the prompt or the json schema changes, cached results of older versions are then not reused
+    private final static String PROMPT_VERSION = "1";
+
+    private final static int DEFAULT_PARALLELISM = 4;
+    //Input tokens per request, keeps each response well below the output limit of the model
+    private final static int DEFAULT_CHUNK_TOKEN_BUDGET = 2_000;
+    private final static int MAX_CHUNK_ATTEMPTS = 3;
+    //Rough estimate for mostly Swedish text, good enough to size chunks
+    private final static int CHARACTERS_PER_TOKEN = 4;
+    private final static String COMPLETIONS_METRIC = "http.openai.chat.completions";
+
+    private final Supplier<OpenAIClient> openAIClient;
     private final ObjectMapper objectMapper;
+    private final int parallelism;
+    //Channels reported at the same time share this service, the permits keep their requests together within parallelism
+    private final Semaphore requestPermits;
+    private final int chunkTokenBudget;
+    private final Metrics metrics;
+    private final Logger logger;
 
-    public OpenAIService(final SecretService secretService){
-        this.openAIClient = OpenAIOkHttpClient.builder()
-                .apiKey(secretService.fetchOpenAPISecrets().apiKey())
-                .build();
-        this.objectMapper = new ObjectMapper();
+    private ResponseFormatJsonSchema jsonSchema;
+
+    public OpenAIService(final SecretService secretService, final ParameterService parameterService, final Metrics metrics,
+                         final Logger logger){
+        //Built on the first chunk that needs the LLM, runs served locally or from cache never load the SDK
+        this(Lazy.of(() -> HttpTransport.openAIClient(secretService.fetchOpenAPISecrets().apiKey(),
+                        parameterService.openAIBaseUrl())),
+                new ObjectMapper(), parameterService.openAIParallelism(), DEFAULT_CHUNK_TOKEN_BUDGET, metrics, logger);
     }
 
     public OpenAIService(final OpenAIClient openAIClient, final ObjectMapper objectMapper) {
+        this(openAIClient, objectMapper, DEFAULT_PARALLELISM, DEFAULT_CHUNK_TOKEN_BUDGET, Logger.getLogger(OpenAIService.class.getName()));
+    }
+
+    public OpenAIService(final OpenAIClient openAIClient, final ObjectMapper objectMapper, final int parallelism,
+                         final int chunkTokenBudget, final Logger logger) {
+        this(openAIClient, objectMapper, parallelism, chunkTokenBudget, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public OpenAIService(final OpenAIClient openAIClient, final ObjectMapper objectMapper, final int parallelism,
+                         final int chunkTokenBudget, final Metrics metrics, final Logger logger) {
+        this(() -> openAIClient, objectMapper, parallelism, chunkTokenBudget, metrics, logger);
+    }
+
+    private OpenAIService(final Supplier<OpenAIClient> openAIClient, final ObjectMapper objectMapper, final int parallelism,
+                          final int chunkTokenBudget, final Metrics metrics, final Logger logger) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was : " + parallelism);
+        }
+
         this.openAIClient = openAIClient;
         this.objectMapper = objectMapper;
+        this.parallelism = parallelism;
+        this.requestPermits = new Semaphore(parallelism);
+        this.chunkTokenBudget = chunkTokenBudget;
+        this.metrics = metrics;
+        this.logger = logger;
     }
 
     @Override
@@ -48,18 +113,179 @@ public class OpenAIService implements ProcessMessageService{
             return List.of();
         }
 
-        String messagePrompt = generatePrompt(messages);
+        final ResponseFormatJsonSchema responseFormat = getJsonSchema();
+        final List<List<Message>> chunks = splitIntoChunks(messages);
+
+        logger.log(Level.INFO, "Sending %d messages to OpenAI in %d chunks".formatted(messages.size(), chunks.size()));
+        metrics.add("llm.messages", messages.size());
+        metrics.add("llm.chunks", chunks.size());
+
+        final long started = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+
+        try {
+            final List<CompletableFuture<List<MeetingFrequency>>> futures = chunks.stream()
+                    .map(chunk -> CompletableFuture.supplyAsync(() -> processChunk(chunk, responseFormat), executor))
+                    .toList();
+
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .flatMap(List::stream)
+                    .toList();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Could not process messages with OpenAI", e.getCause());
+        } finally {
+            executor.shutdown();
+            metrics.recordSince("stage.llm", started);
+        }
+    }
+
+    public String resultVersion() {
+        return MODEL.asString() + "/" + PROMPT_VERSION;
+    }
+
+    //Each chunk is retried on its own, a bad response only costs that chunk another request
+    private List<MeetingFrequency> processChunk(final List<Message> chunk, final ResponseFormatJsonSchema responseFormat) {
+
+        for (int attempt = 1; ; attempt++) {
+            if (attempt > 1) {
+                metrics.increment(COMPLETIONS_METRIC + ".retries");
+            }
+            metrics.increment(COMPLETIONS_METRIC + ".requests");
+
+            try {
+                ChatCompletionCreateParams params = ChatCompletionCreateParams.builder()
+                        .addSystemMessage("You are a string to json parser")
+                        .addUserMessage(generatePrompt(chunk))
+                        .responseFormat(ChatCompletionCreateParams.ResponseFormat.ofJsonSchema(responseFormat))
+                        .model(MODEL)
+                        .build();
+
+                final ChatCompletion response = complete(params);
+
+                //Tokens are what the run costs
+                response.usage().ifPresent(usage -> {
+                    metrics.add("tokens.prompt", usage.promptTokens());
+                    metrics.add("tokens.completion", usage.completionTokens());
+                });
+
+                return extractMeetingFrequency(response)
+                        .stream()
+                        .map(meetingFrequency -> withUserId(meetingFrequency, chunk))
+                        .toList();
+            } catch (Exception e) {
+                //A response that does not match the schema is the model's answer, not a failed request
+                metrics.increment(e instanceof RateLimitException ? COMPLETIONS_METRIC + ".rateLimited"
+                        : e instanceof JsonProcessingException ? COMPLETIONS_METRIC + ".unparsable"
+                        : COMPLETIONS_METRIC + ".failed");
+
+                if (attempt >= MAX_CHUNK_ATTEMPTS) {
+                    throw new IllegalStateException("Chunk of %d messages failed after %d attempts".formatted(chunk.size(), attempt), e);
+                }
+
+                final long delay = e instanceof RateLimitException rateLimitException
+                        ? retryAfter(rateLimitException, attempt)
+                        : Backoff.nanos(attempt);
+
+                logger.log(Level.WARNING, "Chunk of %d messages failed on attempt %d, retrying in %d ms : %s"
+                        .formatted(chunk.size(), attempt, TimeUnit.NANOSECONDS.toMillis(delay), e.getMessage()));
+                sleep(delay);
+            }
+        }
+    }
+
+    private ChatCompletion complete(final ChatCompletionCreateParams params) {
+
+        try {
+            requestPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to send chunk", e);
+        }
+
+        final long sent = System.nanoTime();
+        try {
+            return openAIClient.get().chat().completions().create(params);
+        } finally {
+            metrics.recordSince(COMPLETIONS_METRIC, sent);
+            requestPermits.release();
+        }
+    }
+
+    private long retryAfter(final RateLimitException rateLimitException, final int attempt) {
+
+        return rateLimitException.headers()
+                .values("Retry-After")
+                .stream()
+                .findFirst()
+                .map(String::trim)
+                .flatMap(seconds -> {
+                    try {
+                        return Optional.of((long) (Double.parseDouble(seconds) * TimeUnit.SECONDS.toNanos(1)));
+                    } catch (NumberFormatException e) {
+                        return Optional.empty();
+                    }
+                })
+                .orElseGet(() -> Backoff.nanos(attempt));
+    }
+
+    private void sleep(final long nanos) {
 
-        ChatCompletionCreateParams params = ChatCompletionCreateParams.builder()
-                .addSystemMessage("You are a string to json parser")
-                .addUserMessage(messagePrompt)
-                .responseFormat(ChatCompletionCreateParams.ResponseFormat.ofJsonSchema(getJsonSchema()))
-                .model(ChatModel.GPT_4O_MINI)
-                .build();
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry chunk", e);
+        }
+    }
 
-        ChatCompletion response = openAIClient.chat().completions().create(params);
+    //The model only answers with names, they are unique within a chunk so each result maps back to one user id
+    private static MeetingFrequency withUserId(final MeetingFrequency meetingFrequency, final List<Message> chunk) {
 
-        return extractMeetingFrequency(response);
+        return chunk.stream()
+                .filter(message -> message.name().equals(meetingFrequency.name()))
+                .findFirst()
+                .map(message -> new MeetingFrequency(message.userId(), meetingFrequency.name(), meetingFrequency.meetings(),
+                        meetingFrequency.companies(), meetingFrequency.office()))
+                .orElse(meetingFrequency);
+    }
+
+    private List<List<Message>> splitIntoChunks(final List<Message> messages) {
+
+        final List<List<Message>> chunks = new ArrayList<>();
+        List<Message> currentChunk = new ArrayList<>();
+        final Set<String> namesInChunk = new HashSet<>();
+        int currentTokens = 0;
+
+        for (Message message : messages) {
+            final int messageTokens = estimateTokens(message);
+
+            //A single message above the budget still gets a chunk of its own.
+            //People sharing a display name go to different chunks, so results can be tied back by name
+            if (!currentChunk.isEmpty()
+                && (currentTokens + messageTokens > chunkTokenBudget || namesInChunk.contains(message.name()))) {
+                chunks.add(currentChunk);
+                currentChunk = new ArrayList<>();
+                namesInChunk.clear();
+                currentTokens = 0;
+            }
+
+            currentChunk.add(message);
+            namesInChunk.add(message.name());
+            currentTokens += messageTokens;
+        }
+
+        chunks.add(currentChunk);
+
+        return chunks;
+    }
+
+    private int estimateTokens(final Message message) {
+
+        final int characters = message.name().length() + message.office().length()
+                               + message.rawMessages().stream().mapToInt(String::length).sum();
+
+        return characters / CHARACTERS_PER_TOKEN + 1;
     }
 
     private List<MeetingFrequency> extractMeetingFrequency(final ChatCompletion response) throws JsonProcessingException {
@@ -68,7 +294,7 @@ public class OpenAIService implements ProcessMessageService{
                 .meetingFrequencyItems();
     }
 
-    private String generatePrompt(final List<Message> messages) {
+    String generatePrompt(final List<Message> messages) {
 
         final String messageInPrompt = messages.stream()
                 .map(message -> message.name() + " -> "
@@ -88,14 +314,20 @@ public class OpenAIService implements ProcessMessageService{
                "if it is separated, put it as its own entry in the string array in companies. Attribute office is after the \"-->\" to the right of it att the end before line-break";
     }
 
-    private ResponseFormatJsonSchema getJsonSchema() throws IOException {
+    private synchronized ResponseFormatJsonSchema getJsonSchema() throws IOException {
+
+        if (jsonSchema != null) {
+            return jsonSchema;
+        }
+
         try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("openai/MeetingFrequencyJsonSchema.json")) {
             if (inputStream == null) {
                 throw new FileNotFoundException("Resource not found: openai/MeetingFrequencyJsonSchema.json");
             }
 
-            final ResponseFormatJsonSchema.JsonSchema jsonSchema = objectMapper.readValue(inputStream, ResponseFormatJsonSchema.JsonSchema.class);
-            return ResponseFormatJsonSchema.builder().jsonSchema(jsonSchema).build();
+            final ResponseFormatJsonSchema.JsonSchema schema = objectMapper.readValue(inputStream, ResponseFormatJsonSchema.JsonSchema.class);
+            jsonSchema = ResponseFormatJsonSchema.builder().jsonSchema(schema).build();
+            return jsonSchema;
         }
     }
 }
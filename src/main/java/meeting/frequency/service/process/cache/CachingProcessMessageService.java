@@ -0,0 +1,84 @@
+package meeting.frequency.service.process.cache;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.process.ProcessMessageService;
+import meeting.frequency.service.process.model.MeetingFrequency;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Only messages that have not been processed before with the same version are sent to the delegate
+public class CachingProcessMessageService implements ProcessMessageService {
+
+    private final ProcessMessageService delegate;
+    private final MeetingFrequencyCache cache;
+    private final String version;
+    private final Metrics metrics;
+    private final Logger logger;
+
+    public CachingProcessMessageService(final ProcessMessageService delegate, final MeetingFrequencyCache cache,
+                                        final String version, final Logger logger) {
+        this(delegate, cache, version, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public CachingProcessMessageService(final ProcessMessageService delegate, final MeetingFrequencyCache cache,
+                                        final String version, final Metrics metrics, final Logger logger) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.version = version;
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    @Override
+    public List<MeetingFrequency> process(final List<Message> messages) throws IOException, URISyntaxException {
+
+        final List<MeetingFrequency> results = new ArrayList<>();
+        final Map<String, String> userIdToKeyOfMisses = new LinkedHashMap<>();
+        final List<Message> misses = new ArrayList<>();
+
+        for (Message message : messages) {
+            final String key = MeetingFrequencyCache.key(version, message);
+            final Optional<MeetingFrequency> cached = cache.get(key);
+
+            if (cached.isPresent()) {
+                results.add(cached.get());
+            } else {
+                misses.add(message);
+                userIdToKeyOfMisses.put(message.userId(), key);
+            }
+        }
+
+        logger.log(Level.INFO, "Found %d of %d processed messages in cache".formatted(results.size(), messages.size()));
+        metrics.add("llm.cache.hits", results.size());
+        metrics.add("llm.cache.misses", misses.size());
+
+        if (!misses.isEmpty()) {
+            final List<MeetingFrequency> processed = delegate.process(misses);
+
+            for (MeetingFrequency meetingFrequency : processed) {
+                //Results that could not be tied back to a user id have no input to be cached under
+                final String key = meetingFrequency.userId() == null ? null : userIdToKeyOfMisses.get(meetingFrequency.userId());
+
+                if (key != null) {
+                    cache.put(key, meetingFrequency);
+                }
+            }
+
+            results.addAll(processed);
+        }
+
+        cache.evict();
+
+        return results;
+    }
+}
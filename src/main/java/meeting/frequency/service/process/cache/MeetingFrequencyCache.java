@@ -0,0 +1,149 @@
+package meeting.frequency.service.process.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.file.JsonFileStore;
+import meeting.frequency.service.process.model.MeetingFrequency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+//One file per result named after the hash of its input, last modified time is used as last access for eviction
+public class MeetingFrequencyCache {
+
+    private final static String FILE_SUFFIX = ".json";
+    private final static int DEFAULT_MAX_ENTRIES = 10_000;
+    private final static Duration DEFAULT_MAX_AGE = Duration.ofDays(60);
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final Logger logger;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public MeetingFrequencyCache(final Path directory, final Logger logger) {
+        this(directory, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_AGE, Clock.systemUTC(), logger);
+    }
+
+    public MeetingFrequencyCache(final Path directory, final int maxEntries, final Duration maxAge, final Clock clock,
+                                 final Logger logger) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        this.logger = logger;
+    }
+
+    public static String key(final String version, final Message message) {
+
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            update(digest, version);
+            update(digest, message.userId());
+            update(digest, message.name());
+            update(digest, message.office());
+            for (String rawMessage : message.rawMessages()) {
+                update(digest, rawMessage);
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<MeetingFrequency> get(final String key) {
+
+        final Path file = directory.resolve(key + FILE_SUFFIX);
+
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            final MeetingFrequency meetingFrequency = objectMapper.readValue(file.toFile(), MeetingFrequency.class);
+            Files.setLastModifiedTime(file, FileTime.from(clock.instant()));
+
+            return Optional.of(meetingFrequency);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read cached result %s : %s".formatted(file, e.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    public void put(final String key, final MeetingFrequency meetingFrequency) {
+
+        final Path file = directory.resolve(key + FILE_SUFFIX);
+
+        try {
+            JsonFileStore.write(file, meetingFrequency);
+            Files.setLastModifiedTime(file, FileTime.from(clock.instant()));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not cache result %s : %s".formatted(key, e.getMessage()));
+        }
+    }
+
+    //Drops entries not used within max age, then the least recently used ones above max entries
+    public void evict() {
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+
+            final Instant oldestAllowed = clock.instant().minus(maxAge);
+
+            final List<Path> newestFirst = files
+                    .filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparing(MeetingFrequencyCache::lastModified).reversed())
+                    .toList();
+
+            for (int i = 0; i < newestFirst.size(); i++) {
+                final Path file = newestFirst.get(i);
+
+                if (i >= maxEntries || lastModified(file).toInstant().isBefore(oldestAllowed)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not evict cached results in %s : %s".formatted(directory, e.getMessage()));
+        }
+    }
+
+    private static FileTime lastModified(final Path file) {
+
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    //Length prefixed so ("ab", "c") and ("a", "bc") do not hash the same
+    private static void update(final MessageDigest digest, final String value) {
+
+        final byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+}
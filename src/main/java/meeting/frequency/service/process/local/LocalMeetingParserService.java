@@ -0,0 +1,110 @@
+package meeting.frequency.service.process.local;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.process.ProcessMessageService;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import meeting.frequency.service.process.model.ParsedMeetings;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//Parses the common post format locally and only sends the posts it could not parse to the fallback
+public class LocalMeetingParserService implements ProcessMessageService {
+
+    private final MeetingLineParser meetingLineParser;
+    private final ProcessMessageService fallback;
+    private final Metrics metrics;
+    private final Logger logger;
+
+    public LocalMeetingParserService(final ProcessMessageService fallback, final Logger logger) {
+        this(fallback, new Metrics(Clock.systemUTC()), logger);
+    }
+
+    public LocalMeetingParserService(final ProcessMessageService fallback, final Metrics metrics, final Logger logger) {
+        this(new MeetingLineParser(), fallback, metrics, logger);
+    }
+
+    public LocalMeetingParserService(final MeetingLineParser meetingLineParser, final ProcessMessageService fallback,
+                                     final Metrics metrics, final Logger logger) {
+        this.meetingLineParser = meetingLineParser;
+        this.fallback = fallback;
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    @Override
+    public List<MeetingFrequency> process(final List<Message> messages) throws IOException, URISyntaxException {
+
+        //Keyed by user id, two people with the same display name are kept apart
+        final Map<String, MeetingFrequency> userIdToMeetingFrequency = new LinkedHashMap<>();
+        final List<MeetingFrequency> untiedResults = new ArrayList<>();
+        final List<Message> unparsedMessages = new ArrayList<>();
+        int parsedPosts = 0;
+        int unparsedPosts = 0;
+
+        for (Message message : messages) {
+
+            int meetings = 0;
+            final List<String> companies = new ArrayList<>();
+            final List<String> unparsedPostsOfUser = new ArrayList<>();
+
+            for (String post : message.rawMessages()) {
+                final Optional<ParsedMeetings> parsedMeetings = meetingLineParser.parsePost(post);
+
+                if (parsedMeetings.isPresent()) {
+                    meetings += parsedMeetings.get().meetings();
+                    companies.addAll(parsedMeetings.get().companies());
+                    parsedPosts++;
+                } else {
+                    unparsedPostsOfUser.add(post);
+                    unparsedPosts++;
+                }
+            }
+
+            if (meetings > 0) {
+                userIdToMeetingFrequency.put(message.userId(),
+                        new MeetingFrequency(message.userId(), message.name(), meetings, List.copyOf(companies), message.office()));
+            }
+
+            if (!unparsedPostsOfUser.isEmpty()) {
+                unparsedMessages.add(new Message(message.userId(), message.name(), message.office(), unparsedPostsOfUser));
+            }
+        }
+
+        logger.log(Level.INFO, "Parsed %d posts locally, %d posts left for the model".formatted(parsedPosts, unparsedPosts));
+        metrics.add("posts.parsedLocally", parsedPosts);
+        metrics.add("posts.leftForModel", unparsedPosts);
+
+        if (!unparsedMessages.isEmpty()) {
+            for (MeetingFrequency meetingFrequency : fallback.process(unparsedMessages)) {
+                if (meetingFrequency.userId() == null) {
+                    untiedResults.add(meetingFrequency);
+                } else {
+                    userIdToMeetingFrequency.merge(meetingFrequency.userId(), meetingFrequency, LocalMeetingParserService::combine);
+                }
+            }
+        }
+
+        final List<MeetingFrequency> results = new ArrayList<>(userIdToMeetingFrequency.values());
+        results.addAll(untiedResults);
+
+        return List.copyOf(results);
+    }
+
+    private static MeetingFrequency combine(final MeetingFrequency parsed, final MeetingFrequency fromFallback) {
+
+        final List<String> companies = new ArrayList<>(parsed.companies());
+        companies.addAll(fromFallback.companies());
+
+        return new MeetingFrequency(parsed.userId(), parsed.name(), parsed.meetings() + fromFallback.meetings(), List.copyOf(companies), parsed.office());
+    }
+}
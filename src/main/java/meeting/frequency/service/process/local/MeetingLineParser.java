@@ -0,0 +1,146 @@
+package meeting.frequency.service.process.local;
+
+import meeting.frequency.service.process.model.ParsedMeetings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Parses posts like "3 möten: CompanyA, CompanyB • CompanyC", anything it is not sure about is left for the model
+public class MeetingLineParser {
+
+    private final static int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.UNICODE_CHARACTER_CLASS;
+
+    private final static Pattern EMOJI = Pattern.compile(":[a-z0-9_+'-]+:", FLAGS);
+    private final static Pattern SLACK_LINK = Pattern.compile("<[^|>]*\\|([^>]*)>");
+    private final static Pattern FORMATTING = Pattern.compile("[*_~`]");
+    private final static Pattern LINE_BREAK = Pattern.compile("\\R");
+    private final static Pattern MEETING_LINE =
+            Pattern.compile("^\\s*(?:[-•]\\s*)?(\\d{1,3})\\s*(?:st\\.?\\s*)?m[öo]ten?\\b\\s*[:\\-–—]?\\s*(.*)$", FLAGS);
+    private final static Pattern COMPANY_SEPARATOR = Pattern.compile("\\s*[,•;]\\s*");
+    private final static Pattern TRAILING_SEPARATOR = Pattern.compile("[,•;]\\s*$");
+    private final static Pattern PARENTHESIZED = Pattern.compile("^\\((.*)\\)[.!]*$");
+    private final static Pattern MEETING_WORD = Pattern.compile("\\bm[öo]ten?\\b", FLAGS);
+    private final static Pattern DIGIT = Pattern.compile("\\d");
+
+    private final static int MAX_MEETINGS_PER_LINE = 50;
+    private final static int MAX_COMPANY_LENGTH = 60;
+
+    //Empty when any line of the post could not be parsed with confidence
+    public Optional<ParsedMeetings> parsePost(final String post) {
+
+        int meetings = 0;
+        final List<String> companies = new ArrayList<>();
+        //"2 möten: Volvo," goes on with more companies on the next line
+        boolean listContinues = false;
+        //"2 möten: Volvo" followed by "Scania" could be the rest of the list or chatter
+        boolean companiesMissing = false;
+
+        for (String line : LINE_BREAK.split(normalize(post))) {
+
+            if (line.isBlank()) {
+                continue;
+            }
+
+            final Optional<ParsedMeetings> parsedLine = parseLine(line);
+
+            if (parsedLine.isPresent()) {
+                meetings += parsedLine.get().meetings();
+                companies.addAll(parsedLine.get().companies());
+                listContinues = TRAILING_SEPARATOR.matcher(line).find();
+                companiesMissing = parsedLine.get().companies().size() < parsedLine.get().meetings();
+            } else if (DIGIT.matcher(line).find() || MEETING_WORD.matcher(line).find()) {
+                return Optional.empty();
+            } else if (listContinues) {
+                final Optional<List<String>> continuedCompanies = parseCompanies(line);
+
+                if (continuedCompanies.isEmpty()) {
+                    return Optional.empty();
+                }
+
+                companies.addAll(continuedCompanies.get());
+                listContinues = TRAILING_SEPARATOR.matcher(line).find();
+                companiesMissing = false;
+            } else if (companiesMissing) {
+                return Optional.empty();
+            }
+            //Other lines without numbers or "möte" are chatter and do not count towards any meetings
+        }
+
+        return Optional.of(new ParsedMeetings(meetings, List.copyOf(companies)));
+    }
+
+    Optional<ParsedMeetings> parseLine(final String line) {
+
+        final Matcher matcher = MEETING_LINE.matcher(line);
+
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+
+        final int meetings = Integer.parseInt(matcher.group(1));
+        final String companyPart = unwrapParentheses(matcher.group(2).trim());
+
+        if (meetings < 1 || meetings > MAX_MEETINGS_PER_LINE || MEETING_WORD.matcher(companyPart).find()) {
+            return Optional.empty();
+        }
+
+        return parseCompanies(companyPart).map(companies -> new ParsedMeetings(meetings, companies));
+    }
+
+    private Optional<List<String>> parseCompanies(final String companyPart) {
+
+        //"ICA (two meetings)" could be a comment or another company, that is left for the model to decide
+        if (companyPart.indexOf('(') >= 0 || companyPart.indexOf(')') >= 0) {
+            return Optional.empty();
+        }
+
+        final List<String> companies = Arrays.stream(COMPANY_SEPARATOR.split(companyPart))
+                .map(String::trim)
+                .map(company -> company.replaceAll("[.!]+$", ""))
+                .filter(company -> !company.isBlank())
+                .toList();
+
+        if (companies.isEmpty() || companies.stream().anyMatch(company -> !isCompany(company))) {
+            return Optional.empty();
+        }
+
+        return Optional.of(companies);
+    }
+
+    //"1 möte (Volvo)"
+    private String unwrapParentheses(final String companyPart) {
+
+        final Matcher matcher = PARENTHESIZED.matcher(companyPart);
+
+        return matcher.matches() ? matcher.group(1) : companyPart;
+    }
+
+    private boolean isCompany(final String company) {
+
+        return company.length() <= MAX_COMPANY_LENGTH
+               && company.indexOf('<') < 0
+               && company.indexOf('@') < 0
+               && company.indexOf(':') < 0;
+    }
+
+    private String normalize(final String post) {
+
+        final String withLinkLabels = SLACK_LINK.matcher(post).replaceAll("$1");
+        final String withoutEmoji = EMOJI.matcher(withLinkLabels).replaceAll("");
+
+        return unescape(FORMATTING.matcher(withoutEmoji).replaceAll(""));
+    }
+
+    //Slack sends &, < and > escaped, after the links are resolved so an escaped < is not read as markup.
+    //Unescaped before splitting, otherwise the ';' of "H&amp;M" splits it into two companies
+    private String unescape(final String text) {
+
+        return text.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&");
+    }
+}
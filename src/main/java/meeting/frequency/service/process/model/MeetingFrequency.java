@@ -4,8 +4,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.util.List;
 
+//userId is null when a result could not be tied back to the user it was parsed from
 @JsonIgnoreProperties(ignoreUnknown = true)
-public record MeetingFrequency(String name,
+public record MeetingFrequency(String userId,
+                               String name,
                                int meetings,
                                List<String> companies,
                                String office) {
@@ -0,0 +1,8 @@
+package meeting.frequency.service.process.model;
+
+import java.util.List;
+
+public record ParsedMeetings(int meetings,
+                             List<String> companies) {
+
+}
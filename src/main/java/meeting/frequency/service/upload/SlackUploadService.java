@@ -1,5 +1,6 @@
 package meeting.frequency.service.upload;
 
+import meeting.frequency.parameter.ParameterService;
 import meeting.frequency.secret.SecretService;
 import meeting.frequency.service.integration.slack.SlackHttpClient;
 
@@ -10,9 +11,9 @@ public class SlackUploadService implements UploadService{
 
     private final SlackHttpClient slackHttpClient;
 
-    public SlackUploadService(final SecretService secretService, final Logger logger) {
+    public SlackUploadService(final SecretService secretService, final ParameterService parameterService, final Logger logger) {
 
-        this.slackHttpClient = new SlackHttpClient(secretService, logger);
+        this.slackHttpClient = new SlackHttpClient(secretService, parameterService, logger);
     }
     public SlackUploadService(final SlackHttpClient slackHttpClient) {this.slackHttpClient = slackHttpClient;}
 
@@ -21,4 +22,10 @@ public class SlackUploadService implements UploadService{
 
         return slackHttpClient.uploadFile(file);
     }
+
+    @Override
+    public boolean upload(final String fileName, final byte[] content) {
+
+        return slackHttpClient.uploadFile(fileName, content);
+    }
 }
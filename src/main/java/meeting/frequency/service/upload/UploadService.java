@@ -5,4 +5,6 @@ import java.io.File;
 public interface UploadService {
 
     public boolean upload(File file);
+
+    public boolean upload(String fileName, byte[] content);
 }
@@ -1,25 +1,33 @@
 package frequency;
 
 import meeting.frequency.Handler;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.metrics.MetricsExporter;
+import meeting.frequency.metrics.model.MetricsSummary;
 import meeting.frequency.service.fetch.FetchMessageService;
 import meeting.frequency.service.fetch.model.Message;
 import meeting.frequency.service.generate.GenerateDocumentService;
 import meeting.frequency.service.process.ProcessMessageService;
+import meeting.frequency.service.process.local.LocalMeetingParserService;
 import meeting.frequency.service.process.model.MeetingFrequency;
 import meeting.frequency.service.upload.UploadService;
 import org.junit.jupiter.api.Test;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.time.Clock;
 import java.util.List;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class HandlerTest {
 
@@ -30,17 +38,9 @@ class HandlerTest {
 
     private final Handler handler = new Handler(fetchMessageService, processMessageService, generateDocumentService, uploadService, Logger.getLogger("test"));
 
-    private final static List<Message> MESSAGES = List.of(new Message("Test T", "Stockholm", List.of("1 möte, OP")));
-    private final static List<MeetingFrequency> MEETING_FREQUENCIES = List.of(new MeetingFrequency("Test T", 1,  List.of("OP"), ""));
-    private final static File GENERATED_FILE;
-
-    static {
-        try {
-            GENERATED_FILE = File.createTempFile("test", ".xlsx");
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
+    private final static List<Message> MESSAGES = List.of(new Message("123", "Test T", "Stockholm", List.of("1 möte, OP")));
+    private final static List<MeetingFrequency> MEETING_FREQUENCIES = List.of(new MeetingFrequency("123", "Test T", 1,  List.of("OP"), ""));
+    private final static String DOCUMENT_NAME = "MeetingFrequency.xlsx";
 
     @Test
     public void should_pass_everything() throws Exception {
@@ -50,6 +50,8 @@ class HandlerTest {
         givenUploadServiceReturnsTrue();
 
         handler.weeklyRepost();
+
+        verify(generateDocumentService).writeDocument(eq(MEETING_FREQUENCIES), eq(List.of()), any(OutputStream.class));
     }
 
     @Test
@@ -62,6 +64,44 @@ class HandlerTest {
         assertThrows(RuntimeException.class, handler::weeklyRepost);
     }
 
+    @Test
+    public void should_export_stage_timings_also_when_run_fails() throws Exception {
+        final Metrics metrics = new Metrics(Clock.systemUTC());
+        final MetricsExporter metricsExporter = mock(MetricsExporter.class);
+        final Handler measuredHandler = new Handler(fetchMessageService, processMessageService, generateDocumentService,
+                uploadService, meetingFrequencies -> List.of(), metrics, metricsExporter, Logger.getLogger("test"));
+
+        givenMessageServiceReturns();
+        givenProcessMessageServiceReturns();
+        givenGenerateDocumentServiceReturns();
+        givenUploadServiceReturnsFalse();
+
+        assertThrows(RuntimeException.class, measuredHandler::weeklyRepost);
+
+        verify(metricsExporter).export(argThat((MetricsSummary summary) ->
+                summary.timers().keySet().containsAll(List.of("stage.fetch", "stage.process", "stage.history", "stage.generate", "stage.upload"))
+                && summary.counters().get("report.people") == 1));
+    }
+
+    @Test
+    public void should_export_counters_of_services_sharing_its_metrics() throws Exception {
+        final Metrics metrics = new Metrics(Clock.systemUTC());
+        final MetricsExporter metricsExporter = mock(MetricsExporter.class);
+        final Handler measuredHandler = new Handler(fetchMessageService,
+                new LocalMeetingParserService(messages -> List.of(), metrics, Logger.getLogger("test")),
+                generateDocumentService, uploadService, meetingFrequencies -> List.of(), metrics, metricsExporter,
+                Logger.getLogger("test"));
+
+        givenMessageServiceReturns();
+        givenGenerateDocumentServiceReturns();
+        givenUploadServiceReturnsTrue();
+
+        measuredHandler.weeklyRepost();
+
+        verify(metricsExporter).export(argThat((MetricsSummary summary) ->
+                summary.counters().get("posts.parsedLocally") == 1));
+    }
+
     private void givenMessageServiceReturns() throws URISyntaxException {
         given(fetchMessageService.fetchMessages())
                 .willReturn(MESSAGES);
@@ -75,18 +115,18 @@ class HandlerTest {
     }
 
     private void givenGenerateDocumentServiceReturns() throws URISyntaxException, IOException {
-        given(generateDocumentService.generateDocument(eq(MEETING_FREQUENCIES)))
-                .willReturn(GENERATED_FILE);
+        given(generateDocumentService.documentName())
+                .willReturn(DOCUMENT_NAME);
 
     }
 
     private void givenUploadServiceReturnsTrue(){
-        given(uploadService.upload(eq(GENERATED_FILE)))
+        given(uploadService.upload(eq(DOCUMENT_NAME), any(byte[].class)))
                 .willReturn(true);
     }
 
     private void givenUploadServiceReturnsFalse(){
-        given(uploadService.upload(eq(GENERATED_FILE)))
+        given(uploadService.upload(eq(DOCUMENT_NAME), any(byte[].class)))
                 .willReturn(false);
     }
 
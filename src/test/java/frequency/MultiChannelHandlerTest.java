@@ -0,0 +1,95 @@
+package frequency;
+
+import meeting.frequency.Handler;
+import meeting.frequency.MultiChannelHandler;
+import meeting.frequency.ReportPublisher;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.metrics.MetricsExporter;
+import meeting.frequency.metrics.model.MetricsSummary;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class MultiChannelHandlerTest {
+
+    private final Handler stockholmHandler = mock(Handler.class);
+    private final Handler goteborgHandler = mock(Handler.class);
+    private final Handler malmoHandler = mock(Handler.class);
+    private final ReportPublisher combinedPublisher = mock(ReportPublisher.class);
+    private final Metrics metrics = new Metrics(Clock.systemUTC());
+    private final MetricsExporter metricsExporter = mock(MetricsExporter.class);
+
+    @Test
+    public void should_combine_reports_of_every_channel() throws Exception {
+
+        given(stockholmHandler.weeklyReport()).willReturn(List.of(
+                new MeetingFrequency("123", "Test testsson", 2, List.of("Ica", "Volvo"), "Stockholm")));
+        given(goteborgHandler.weeklyReport()).willReturn(List.of(
+                new MeetingFrequency("123", "Test testsson", 1, List.of("Volvo", "Scania"), "Stockholm"),
+                new MeetingFrequency("456", "Bengt testsson", 4, List.of("Saab"), "Göteborg")));
+
+        handler(Map.of("stockholm", stockholmHandler, "goteborg", goteborgHandler)).weeklyRepost();
+
+        verify(combinedPublisher).publish(List.of(
+                new MeetingFrequency("456", "Bengt testsson", 4, List.of("Saab"), "Göteborg"),
+                new MeetingFrequency("123", "Test testsson", 3, List.of("Volvo", "Scania", "Ica", "Volvo"), "Stockholm")));
+    }
+
+    @Test
+    public void should_report_remaining_channels_when_one_fails() throws Exception {
+
+        given(stockholmHandler.weeklyReport()).willReturn(List.of(
+                new MeetingFrequency("123", "Test testsson", 2, List.of("Ica"), "Stockholm")));
+        given(goteborgHandler.weeklyReport()).willThrow(new RuntimeException("Could not find messages"));
+        given(malmoHandler.weeklyReport()).willReturn(List.of(
+                new MeetingFrequency("456", "Bengt testsson", 1, List.of("Saab"), "Malmö")));
+
+        final MultiChannelHandler handler =
+                handler(Map.of("stockholm", stockholmHandler, "goteborg", goteborgHandler, "malmo", malmoHandler));
+
+        assertThrows(IllegalStateException.class, handler::weeklyRepost);
+        verify(combinedPublisher).publish(List.of(
+                new MeetingFrequency("123", "Test testsson", 2, List.of("Ica"), "Stockholm"),
+                new MeetingFrequency("456", "Bengt testsson", 1, List.of("Saab"), "Malmö")));
+    }
+
+    @Test
+    public void should_export_metrics_of_every_channel_once() {
+
+        given(stockholmHandler.weeklyReport()).willReturn(List.of(
+                new MeetingFrequency("123", "Test testsson", 2, List.of("Ica"), "Stockholm")));
+        given(goteborgHandler.weeklyReport()).willReturn(List.of(
+                new MeetingFrequency("456", "Bengt testsson", 1, List.of("Saab"), "Göteborg")));
+
+        handler(Map.of("stockholm", stockholmHandler, "goteborg", goteborgHandler)).weeklyRepost();
+
+        verify(metricsExporter).export(argThat((MetricsSummary summary) ->
+                summary.timers().containsKey("channel.stockholm") && summary.timers().containsKey("channel.goteborg")));
+    }
+
+    @Test
+    public void should_fail_without_channels() {
+
+        assertThrows(IllegalArgumentException.class, () -> handler(Map.of()));
+    }
+
+    private MultiChannelHandler handler(final Map<String, Handler> channelHandlers) {
+
+        //Sorted so the combined order does not depend on the map implementation
+        final Map<String, Handler> orderedHandlers = new LinkedHashMap<>();
+        channelHandlers.keySet().stream().sorted().forEach(channel -> orderedHandlers.put(channel, channelHandlers.get(channel)));
+
+        return new MultiChannelHandler(orderedHandlers, combinedPublisher, 2, metrics, metricsExporter, Logger.getLogger("test"));
+    }
+}
@@ -0,0 +1,76 @@
+package frequency.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.metrics.MetricsExporter;
+import meeting.frequency.metrics.model.HistogramSummary;
+import meeting.frequency.metrics.model.MetricsSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+
+    private final static Clock CLOCK = Clock.fixed(Instant.parse("2025-04-03T02:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path metricsDirectory;
+
+    @Test
+    public void should_summarize_counters_and_latency_buckets() {
+
+        final Metrics metrics = new Metrics(CLOCK);
+
+        for (int request = 0; request < 9; request++) {
+            metrics.record("http.slack.users.info", TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        metrics.record("http.slack.users.info", TimeUnit.MILLISECONDS.toNanos(700));
+        metrics.increment("http.slack.users.info.rateLimited");
+        metrics.add("tokens.prompt", 1200);
+        metrics.add("tokens.prompt", 300);
+
+        final MetricsSummary summary = metrics.summary();
+
+        assertEquals(Map.of("http.slack.users.info.rateLimited", 1L, "tokens.prompt", 1500L), summary.counters());
+        assertEquals(new HistogramSummary(10, 727, 3, 72.7, 5, 700, 700, 700, Map.of("<5ms", 9L, "<1000ms", 1L)),
+                summary.timers().get("http.slack.users.info"));
+    }
+
+    @Test
+    public void should_keep_runs_apart() {
+
+        final Metrics previousRun = new Metrics(CLOCK);
+        previousRun.increment("messages.fetched");
+        previousRun.record("stage.fetch", 1);
+
+        final Metrics metrics = new Metrics(CLOCK);
+
+        assertTrue(metrics.summary().counters().isEmpty());
+        assertTrue(metrics.summary().timers().isEmpty());
+    }
+
+    @Test
+    public void should_write_summary_as_json() throws IOException {
+
+        final Metrics metrics = new Metrics(CLOCK);
+        metrics.record("stage.upload", TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.add("tokens.completion", 250);
+
+        new MetricsExporter(metricsDirectory, Logger.getLogger("test")).export(metrics.summary());
+
+        final Path file = metricsDirectory.resolve("2025-04-03T02-00-00Z.json");
+        assertEquals(metrics.summary(), new ObjectMapper().readValue(Files.readString(file), MetricsSummary.class));
+    }
+}
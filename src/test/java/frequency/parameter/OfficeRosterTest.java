@@ -0,0 +1,128 @@
+package frequency.parameter;
+
+import meeting.frequency.parameter.Office;
+import meeting.frequency.parameter.OfficeRoster;
+import meeting.frequency.parameter.OfficeRosterFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OfficeRosterTest {
+
+    private final static String ROSTER = """
+            {
+              "Göteborg": ["Peo Strand", "Anna Öberg"],
+              "Stockholm": ["Erik Lund"]
+            }
+            """;
+
+    @TempDir
+    Path rosterDirectory;
+
+    @Test
+    public void should_find_office_regardless_of_case_and_whitespace() {
+
+        final OfficeRoster officeRoster = OfficeRoster.parse(ROSTER);
+
+        assertEquals(3, officeRoster.size());
+        assertEquals(Optional.of(Office.GOTHENBURG), officeRoster.officeOf("Peo Strand"));
+        assertEquals(Optional.of(Office.GOTHENBURG), officeRoster.officeOf("  peo   STRAND "));
+        //Decomposed Ö, as some clients send it
+        assertEquals(Optional.of(Office.GOTHENBURG), officeRoster.officeOf("Anna O\u0308berg"));
+        assertEquals(Optional.empty(), officeRoster.officeOf("Someone Else"));
+        assertEquals(Optional.empty(), officeRoster.officeOf(null));
+    }
+
+    @Test
+    public void should_match_names_that_differ_from_the_roster() {
+
+        final OfficeRoster officeRoster = OfficeRoster.parse("""
+                {
+                  "Göteborg": ["Peo Strand", "Anna Öberg"],
+                  "Malmö": ["Ulrika Nilsson"],
+                  "Stockholm": ["Erik Lund", "Erik Holm"]
+                }
+                """);
+
+        assertEquals(Optional.of(Office.GOTHENBURG), officeRoster.match("Anna Oberg"));
+        assertEquals(Optional.of(Office.GOTHENBURG), officeRoster.match("Anna Maria Öberg"));
+        assertEquals(Optional.of(Office.GOTHENBURG), officeRoster.match("Strand, Peo"));
+        assertEquals(Optional.of(Office.GOTHENBURG), officeRoster.match("Peo Stand"));
+        assertEquals(Optional.of(Office.MALMO), officeRoster.match("Ulrika"));
+        //Both Eriks work in Stockholm
+        assertEquals(Optional.of(Office.STOCKHOLM), officeRoster.match("Erik"));
+        assertEquals(Optional.empty(), officeRoster.match("Anna Lund"));
+    }
+
+    @Test
+    public void should_not_match_when_people_at_different_offices_are_as_close() {
+
+        final OfficeRoster officeRoster = OfficeRoster.parse("""
+                {"Göteborg": ["Anna Öberg"], "Malmö": ["Anna Berg"]}
+                """);
+
+        assertEquals(Optional.empty(), officeRoster.match("Anna"));
+        assertEquals(Optional.of(Office.MALMO), officeRoster.match("Anna Berg"));
+    }
+
+    @Test
+    public void should_list_people_per_office() {
+
+        final OfficeRoster officeRoster = OfficeRoster.parse(ROSTER);
+
+        assertEquals(List.of("Peo Strand", "Anna Öberg"), officeRoster.people(Office.GOTHENBURG));
+        assertEquals(List.of("Erik Lund"), officeRoster.people(Office.STOCKHOLM));
+        assertEquals(List.of(), officeRoster.people(Office.OSLO));
+    }
+
+    @Test
+    public void should_fail_when_person_is_listed_at_two_offices() {
+
+        assertThrows(IllegalStateException.class, () -> OfficeRoster.parse("""
+                {"Göteborg": ["Peo Strand"], "Malmö": ["peo strand"]}
+                """));
+    }
+
+    @Test
+    public void should_reload_roster_file_when_it_has_changed() throws IOException {
+
+        final Path rosterFile = rosterDirectory.resolve("roster.json");
+        Files.writeString(rosterFile, ROSTER);
+        Files.setLastModifiedTime(rosterFile, FileTime.from(Instant.parse("2025-04-01T00:00:00Z")));
+
+        final OfficeRosterFile officeRosterFile = new OfficeRosterFile(rosterFile);
+        final OfficeRoster firstRead = officeRosterFile.get();
+
+        assertEquals(firstRead, officeRosterFile.get());
+
+        Files.writeString(rosterFile, """
+                {"Malmö": ["Peo Strand"]}
+                """);
+        Files.setLastModifiedTime(rosterFile, FileTime.from(Instant.parse("2025-04-02T00:00:00Z")));
+
+        assertEquals(Optional.of(Office.MALMO), officeRosterFile.get().officeOf("Peo Strand"));
+        assertEquals(1, officeRosterFile.get().size());
+    }
+
+    @Test
+    public void should_change_version_when_people_swap_offices() {
+
+        final OfficeRoster roster = OfficeRoster.of(Map.of("Peo Strand", Office.OSLO, "Ulrika Nilsson", Office.UMEA));
+        final OfficeRoster swapped = OfficeRoster.of(Map.of("Peo Strand", Office.UMEA, "Ulrika Nilsson", Office.OSLO));
+
+        assertNotEquals(roster.version(), swapped.version());
+        assertEquals(roster.version(), OfficeRoster.of(Map.of("Ulrika Nilsson", Office.UMEA, "Peo Strand", Office.OSLO)).version());
+    }
+}
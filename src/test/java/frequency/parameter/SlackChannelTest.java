@@ -0,0 +1,49 @@
+package frequency.parameter;
+
+import meeting.frequency.parameter.SlackChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SlackChannelTest {
+
+    @Test
+    public void should_parse_channels() {
+
+        assertEquals(List.of(new SlackChannel("sales-stockholm", "C0123", "C0456"), new SlackChannel("sales_oslo", "C0789", "C0456")),
+                SlackChannel.parse("""
+                        [{"name": "sales-stockholm", "channelId": "C0123", "sendToChannelId": "C0456"},
+                         {"name": "sales_oslo", "channelId": "C0789", "sendToChannelId": "C0456"}]
+                        """));
+    }
+
+    @Test
+    public void should_reject_names_that_leave_the_history_directory() {
+
+        assertThrows(IllegalStateException.class, () -> SlackChannel.parse("""
+                [{"name": "..", "channelId": "C0123", "sendToChannelId": "C0456"}]
+                """));
+        assertThrows(IllegalStateException.class, () -> SlackChannel.parse("""
+                [{"name": "sales/../../etc", "channelId": "C0123", "sendToChannelId": "C0456"}]
+                """));
+        assertThrows(IllegalStateException.class, () -> SlackChannel.parse("""
+                [{"channelId": "C0123", "sendToChannelId": "C0456"}]
+                """));
+    }
+
+    @Test
+    public void should_reject_channels_listed_twice() {
+
+        assertThrows(IllegalStateException.class, () -> SlackChannel.parse("""
+                [{"name": "sales-stockholm", "channelId": "C0123", "sendToChannelId": "C0456"},
+                 {"name": "sales-oslo", "channelId": "C0123", "sendToChannelId": "C0456"}]
+                """));
+        assertThrows(IllegalStateException.class, () -> SlackChannel.parse("""
+                [{"name": "sales", "channelId": "C0123", "sendToChannelId": "C0456"},
+                 {"name": "sales", "channelId": "C0789", "sendToChannelId": "C0456"}]
+                """));
+    }
+}
@@ -1,20 +1,29 @@
 package frequency.service.fetch;
 
 
+import meeting.frequency.metrics.Metrics;
 import meeting.frequency.parameter.Office;
+import meeting.frequency.parameter.OfficeRoster;
 import meeting.frequency.service.fetch.FetchSlackMessages;
+import meeting.frequency.service.fetch.MessageHistory;
 import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.fetch.user.SlackUserResolver;
+import meeting.frequency.service.fetch.user.UserResolver;
 import meeting.frequency.service.integration.slack.SlackHttpClient;
 import meeting.frequency.service.integration.slack.pojo.BlocksItem;
 import meeting.frequency.service.integration.slack.pojo.MessagesItem;
-import meeting.frequency.service.integration.slack.pojo.SlackHistoryResponse;
 import meeting.frequency.service.integration.slack.pojo.user.SlackUserInfoResponse;
 import meeting.frequency.service.integration.slack.pojo.user.User;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -34,10 +43,12 @@ class FetchSlackMessagesTest {
             "Bengt testsson", Office.STOCKHOLM
     );
 
-    private final FetchSlackMessages fetchSlackMessages = new FetchSlackMessages(slackHttpClient, nameToOfficeMapping, Logger.getLogger("test"));
+    private final FetchSlackMessages fetchSlackMessages = fetchSlackMessages(slackHttpClient::streamSlackHistory,
+            new SlackUserResolver(slackHttpClient, 8, Logger.getLogger("test")), 50);
 
     private final static String USER_ID_1 = "123";
     private final static String USER_ID_2 = "456";
+    private final static String USER_ID_3 = "789";
 
     @Test
     public void should_successfully_fetch_messages() {
@@ -64,8 +75,19 @@ class FetchSlackMessagesTest {
 
         assertEquals(2, messages.size());
 
-        assertTrue(messages.contains(new Message("Test testsson", "Stockholm", List.of("Test"))));
-        assertTrue(messages.contains(new Message("Bengt testsson", "Stockholm", List.of("Test2"))));
+        assertTrue(messages.contains(new Message("123", "Test testsson", "Stockholm", List.of("Test"))));
+        assertTrue(messages.contains(new Message("456", "Bengt testsson", "Stockholm", List.of("Test2"))));
+    }
+
+    @Test
+    public void should_keep_other_users_when_one_user_lookup_fails() {
+
+        givenSlackClientReturnsHistoryMultipleUsers();
+        givenSlackClientFailsForOneUser();
+
+        final List<Message> messages = fetchSlackMessages.fetchMessages();
+
+        assertEquals(List.of(new Message("456", "Bengt testsson", "Stockholm", List.of("Test2"))), messages);
     }
 
     @Test
@@ -96,34 +118,69 @@ class FetchSlackMessagesTest {
         verify(slackHttpClient, never()).fetchUserInformation(any(String.class));
     }
 
+    @Test
+    public void should_resolve_users_in_batches_while_reading_history() {
+
+        final UserResolver userResolver = mock(UserResolver.class);
+        given(userResolver.resolveUsers(Set.of(USER_ID_1, USER_ID_2)))
+                .willReturn(Map.of(USER_ID_1, new User(USER_ID_1, "Test testsson"), USER_ID_2, new User(USER_ID_2, "Bengt testsson")));
+        given(userResolver.resolveUsers(Set.of(USER_ID_3)))
+                .willReturn(Map.of(USER_ID_3, new User(USER_ID_3, "Anna testsson")));
+
+        final FetchSlackMessages batchingFetch = fetchSlackMessages(startTimestamp -> Stream.of(
+                new MessagesItem("Test", "message", USER_ID_1, "1743508273.230809", List.of()),
+                new MessagesItem("Test2", "message", USER_ID_2, "1743508275.630809", List.of()),
+                new MessagesItem("Test3", "message", USER_ID_3, "1743508279.130809", List.of())),
+                userResolver, 2);
+
+        final List<Message> messages = batchingFetch.fetchMessages();
+
+        assertEquals(3, messages.size());
+        assertTrue(messages.contains(new Message("789", "Anna testsson", "Stockholm", List.of("Test3"))));
+        verify(userResolver).resolveUsers(Set.of(USER_ID_1, USER_ID_2));
+        verify(userResolver).resolveUsers(Set.of(USER_ID_3));
+    }
+
+    @Test
+    public void should_use_changed_roster_on_next_run() {
+
+        final AtomicReference<OfficeRoster> roster = new AtomicReference<>(OfficeRoster.of(Map.of("Test testsson", Office.STOCKHOLM)));
+        final FetchSlackMessages rosterFetch = new FetchSlackMessages(
+                startTimestamp -> Stream.of(new MessagesItem("Test", "message", USER_ID_1, "1743508273.230809", List.of())),
+                userIds -> Map.of(USER_ID_1, new User(USER_ID_1, "Test testsson")), 50, roster::get,
+                new OfficeDirectory(Logger.getLogger("test")), new Metrics(Clock.systemUTC()), Logger.getLogger("test"));
+
+        rosterFetch.fetchMessages();
+        roster.set(OfficeRoster.of(Map.of("Test testsson", Office.OSLO)));
+
+        assertEquals(Office.OSLO.getRawName(), rosterFetch.fetchMessages().get(0).office());
+    }
 
     private void givenSlackClientReturnsHistory() {
 
-        given(slackHttpClient.fetchSlackHistory(any(Long.class)))
-                .willReturn(new SlackHistoryResponse(true, List.of(
+        given(slackHttpClient.streamSlackHistory(any(Long.class)))
+                .willReturn(Stream.of(
                         new MessagesItem("Test", "message", USER_ID_1, "1743508273.230809",
                                 List.of(new BlocksItem(List.of(), "message", "333"))),
                         new MessagesItem("Test1", "message", USER_ID_1, "1743538223.230809", null),
                         new MessagesItem("Test2", "message", USER_ID_1, "1743508275.630809",
-                                List.of(new BlocksItem(List.of(), "message", "333")))),
-                        false, null));
+                                List.of(new BlocksItem(List.of(), "message", "333")))));
     }
 
     private void givenSlackClientReturnsHistoryMultipleUsers() {
 
-        given(slackHttpClient.fetchSlackHistory(any(Long.class)))
-                .willReturn(new SlackHistoryResponse(true, List.of(
+        given(slackHttpClient.streamSlackHistory(any(Long.class)))
+                .willReturn(Stream.of(
                         new MessagesItem("Test", "message", USER_ID_1, "1743508273.230809",
                                 List.of(new BlocksItem(List.of(), "message", "333"))),
                         new MessagesItem("Test2", "message", USER_ID_2, "1743508275.630809",
-                                List.of(new BlocksItem(List.of(), "message", "333")))),
-                        false, null));
+                                List.of(new BlocksItem(List.of(), "message", "333")))));
     }
 
     private void givenSlackClientReturnsNoHistory() {
 
-        given(slackHttpClient.fetchSlackHistory(any(Long.class)))
-                .willReturn(new SlackHistoryResponse(true, List.of(), false, "access denied"));
+        given(slackHttpClient.streamSlackHistory(any(Long.class)))
+                .willReturn(Stream.empty());
     }
 
     private void givenSlackClientReturnsUserInformation() {
@@ -135,9 +192,25 @@ class FetchSlackMessagesTest {
                 .willReturn(new SlackUserInfoResponse(true, new User(USER_ID_2, "Bengt testsson"), null));
     }
 
+    private void givenSlackClientFailsForOneUser() {
+
+        given(slackHttpClient.fetchUserInformation(eq(USER_ID_1)))
+                .willThrow(new RuntimeException("connection reset"));
+
+        given(slackHttpClient.fetchUserInformation(eq(USER_ID_2)))
+                .willReturn(new SlackUserInfoResponse(true, new User(USER_ID_2, "Bengt testsson"), null));
+    }
+
     private void givenSlackClientReturnsNoUserInfo() {
 
         given(slackHttpClient.fetchUserInformation(eq(USER_ID_1)))
-                .willReturn(new SlackUserInfoResponse(false, User.EMPTY_USER(), "not found"));
+                .willReturn(new SlackUserInfoResponse(false, User.EMPTY_USER(), "user_not_found"));
+    }
+
+    private FetchSlackMessages fetchSlackMessages(final MessageHistory messageHistory, final UserResolver userResolver,
+                                                  final int resolveBatchSize) {
+
+        return new FetchSlackMessages(messageHistory, userResolver, resolveBatchSize, () -> OfficeRoster.of(nameToOfficeMapping),
+                new OfficeDirectory(Logger.getLogger("test")), new Metrics(Clock.systemUTC()), Logger.getLogger("test"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package frequency.service.fetch;
+
+import meeting.frequency.service.fetch.MessageAggregator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageAggregatorTest {
+
+    @Test
+    public void should_group_messages_per_user_in_order() {
+
+        final MessageAggregator messageAggregator = new MessageAggregator();
+
+        assertTrue(messageAggregator.add("U1", "2 möten: Volvo, Ica"));
+        assertTrue(messageAggregator.add("U2", "1 möte (Scania)"));
+        assertFalse(messageAggregator.add("U1", ""));
+        assertFalse(messageAggregator.add("U1", "Fika"));
+        assertFalse(messageAggregator.add(new String("U2"), null));
+
+        assertEquals(List.of("2 möten: Volvo, Ica", "", "Fika"), messageAggregator.messagesOf("U1"));
+        assertEquals(List.of("1 möte (Scania)", ""), messageAggregator.messagesOf("U2"));
+        assertEquals(List.of(), messageAggregator.messagesOf("U3"));
+        assertEquals(2, messageAggregator.users());
+        assertEquals(5, messageAggregator.messages());
+    }
+
+    @Test
+    public void should_keep_every_message_of_a_busy_user() {
+
+        final MessageAggregator messageAggregator = new MessageAggregator();
+
+        for (int message = 0; message < 1_000; message++) {
+            messageAggregator.add("U1", "Post " + message);
+        }
+
+        final List<String> messages = messageAggregator.messagesOf("U1");
+
+        assertEquals(1_000, messages.size());
+        assertEquals("Post 0", messages.get(0));
+        assertEquals("Post 999", messages.get(999));
+    }
+}
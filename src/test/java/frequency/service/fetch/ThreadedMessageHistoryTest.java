@@ -0,0 +1,137 @@
+package frequency.service.fetch;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.service.fetch.ThreadedMessageHistory;
+import meeting.frequency.service.integration.slack.SlackApiException;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadedMessageHistoryTest {
+
+    private final static long START = 1743500000L;
+
+    @Test
+    public void should_add_thread_replies_once_per_ts() {
+
+        final Map<String, AtomicInteger> fetchedThreads = new ConcurrentHashMap<>();
+
+        final ThreadedMessageHistory history = new ThreadedMessageHistory(
+                startTimestamp -> Stream.of(
+                        parent("1743508273.000100", 2),
+                        post("1743508275.000200"),
+                        //Reply also sent to the channel
+                        new MessagesItem("Broadcast", "message", "U2", "1743508290.000400", List.of(), "1743508273.000100", 0, null),
+                        //Same parent on an overlapping page
+                        parent("1743508273.000100", 2)),
+                (threadTs, startTimestamp) -> {
+                    fetchedThreads.computeIfAbsent(threadTs, ts -> new AtomicInteger()).incrementAndGet();
+                    return Stream.of(
+                            parent(threadTs, 2),
+                            reply("1743508280.000300", threadTs),
+                            new MessagesItem("Broadcast", "message", "U2", "1743508290.000400", List.of(), threadTs, 0, null));
+                },
+                4, Logger.getLogger("test"));
+
+        final List<String> ts;
+        try (Stream<MessagesItem> messages = history.messagesSince(START)) {
+            ts = messages.map(MessagesItem::ts).toList();
+        }
+
+        assertEquals(List.of("1743508273.000100", "1743508275.000200", "1743508290.000400", "1743508280.000300"), ts);
+        assertEquals(1, fetchedThreads.get("1743508273.000100").get());
+    }
+
+    @Test
+    public void should_fetch_threads_in_parallel_while_history_is_read() throws InterruptedException {
+
+        final CountDownLatch bothThreadsFetching = new CountDownLatch(2);
+
+        final ThreadedMessageHistory history = new ThreadedMessageHistory(
+                startTimestamp -> Stream.of(parent("1743508273.000100", 1), parent("1743508274.000100", 1)),
+                (threadTs, startTimestamp) -> {
+                    bothThreadsFetching.countDown();
+                    try {
+                        //Only returns once the other thread is being fetched as well
+                        assertTrue(bothThreadsFetching.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return Stream.of(reply(threadTs.replace(".000100", ".000200"), threadTs));
+                },
+                2, Logger.getLogger("test"));
+
+        try (Stream<MessagesItem> messages = history.messagesSince(START)) {
+            assertEquals(4, messages.count());
+        }
+    }
+
+    @Test
+    public void should_fail_and_count_thread_whose_replies_page_fails() {
+
+        final Metrics metrics = new Metrics(Clock.systemUTC());
+
+        final ThreadedMessageHistory history = new ThreadedMessageHistory(
+                startTimestamp -> Stream.of(parent("1743508273.000100", 2), parent("1743508274.000100", 1)),
+                (threadTs, startTimestamp) -> "1743508273.000100".equals(threadTs)
+                        //The first page is read, the next one answers ok=false
+                        ? Stream.concat(Stream.of(reply("1743508280.000300", threadTs)),
+                                Stream.<MessagesItem>generate(() -> {
+                                    throw new SlackApiException("ratelimited");
+                                }).limit(1))
+                        : Stream.of(reply("1743508281.000300", threadTs)),
+                2, metrics, Logger.getLogger("test"));
+
+        try (Stream<MessagesItem> messages = history.messagesSince(START)) {
+            final SlackApiException exception = assertThrows(SlackApiException.class, messages::toList);
+            assertEquals("ratelimited", exception.error());
+        }
+
+        assertEquals(1, metrics.summary().counters().get("threads.failed").longValue());
+    }
+
+    @Test
+    public void should_read_replies_of_known_threads_without_counting_parents() {
+
+        final Metrics metrics = new Metrics(Clock.systemUTC());
+
+        final ThreadedMessageHistory history = new ThreadedMessageHistory(
+                startTimestamp -> Stream.empty(),
+                (threadTs, startTimestamp) -> Stream.of(parent(threadTs, 2), reply(threadTs.replace(".000100", ".000300"), threadTs)),
+                2, metrics, Logger.getLogger("test"));
+
+        final List<String> ts;
+        try (Stream<MessagesItem> replies = history.repliesSince(List.of("1743508273.000100", "1743508274.000100"), START)) {
+            ts = replies.map(MessagesItem::ts).toList();
+        }
+
+        assertEquals(List.of("1743508273.000100", "1743508273.000300", "1743508274.000100", "1743508274.000300"), ts);
+        assertEquals(2, metrics.summary().counters().get("threads.fetched").longValue());
+        assertEquals(2, metrics.summary().counters().get("threads.replies").longValue());
+    }
+
+    private static MessagesItem parent(final String ts, final int replies) {
+        return new MessagesItem("2 möten: Volvo, Ica", "message", "U1", ts, List.of(), ts, replies, null);
+    }
+
+    private static MessagesItem post(final String ts) {
+        return new MessagesItem("1 möte (Scania)", "message", "U1", ts, List.of());
+    }
+
+    private static MessagesItem reply(final String ts, final String threadTs) {
+        return new MessagesItem("3 möten: Volvo", "message", "U3", ts, List.of(), threadTs, 0, null);
+    }
+}
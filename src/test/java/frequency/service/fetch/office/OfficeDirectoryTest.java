@@ -0,0 +1,84 @@
+package frequency.service.fetch.office;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.Office;
+import meeting.frequency.parameter.OfficeRoster;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.fetch.office.OfficeResolver;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class OfficeDirectoryTest {
+
+    private final static String USER_ID_1 = "123";
+    private final static String USER_ID_2 = "456";
+    private final static OfficeRoster ROSTER = OfficeRoster.of(Map.of(
+            "Peo Strand", Office.GOTHENBURG,
+            "Ulrika Nilsson", Office.MALMO));
+
+    private final Metrics metrics = new Metrics(Clock.systemUTC());
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void should_reuse_matches_from_file_on_next_run() {
+
+        final List<User> users = List.of(new User(USER_ID_1, "Peo  Stand"), new User(USER_ID_2, "Someone Else"));
+
+        runWith(users, ROSTER);
+        final Map<String, Office> offices = directory().officesOf(users, ROSTER);
+
+        assertEquals(Map.of(USER_ID_1, Office.GOTHENBURG), offices);
+        assertEquals(2, metrics.summary().counters().get("office.match.cached").longValue());
+    }
+
+    @Test
+    public void should_match_again_when_name_or_roster_changes() {
+
+        runWith(List.of(new User(USER_ID_1, "Peo Strand"), new User(USER_ID_2, "Ulrika")), ROSTER);
+
+        final OfficeRoster movedRoster = OfficeRoster.of(Map.of(
+                "Peo Strand", Office.OSLO,
+                "Ulrika Nilsson", Office.MALMO));
+
+        final Map<String, Office> offices = directory()
+                .officesOf(List.of(new User(USER_ID_1, "Peo Strand"), new User(USER_ID_2, "Ulrika Nilsson")), movedRoster);
+
+        assertEquals(Map.of(USER_ID_1, Office.OSLO, USER_ID_2, Office.MALMO), offices);
+        assertFalse(metrics.summary().counters().containsKey("office.match.cached"));
+    }
+
+    @Test
+    public void should_fall_back_to_roster_when_profile_names_no_office() {
+
+        final OfficeDirectory officeDirectory = new OfficeDirectory(userIds -> Map.of(USER_ID_1, Office.OSLO),
+                cacheDirectory, Logger.getLogger("test"));
+
+        final Map<String, Office> offices = officeDirectory
+                .officesOf(List.of(new User(USER_ID_1, "Peo Strand"), new User(USER_ID_2, "Ulrika Nilsson")), ROSTER);
+
+        assertEquals(Map.of(USER_ID_1, Office.OSLO, USER_ID_2, Office.MALMO), offices);
+    }
+
+    private void runWith(final List<User> users, final OfficeRoster officeRoster) {
+
+        final OfficeDirectory officeDirectory = directory();
+        officeDirectory.officesOf(users, officeRoster);
+        officeDirectory.save();
+    }
+
+    private OfficeDirectory directory() {
+        return new OfficeDirectory(OfficeResolver.none(), cacheDirectory, metrics, Logger.getLogger("test"));
+    }
+}
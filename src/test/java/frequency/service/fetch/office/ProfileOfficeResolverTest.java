@@ -0,0 +1,94 @@
+package frequency.service.fetch.office;
+
+import meeting.frequency.parameter.Office;
+import meeting.frequency.service.fetch.office.ProfileOfficeResolver;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.user.Profile;
+import meeting.frequency.service.integration.slack.pojo.user.ProfileField;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserProfileResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ProfileOfficeResolverTest {
+
+    private final static String USER_ID_1 = "123";
+    private final static String USER_ID_2 = "456";
+    private final static String OFFICE_FIELD = "Xf06054AAA";
+    private final static Instant NOW = Instant.parse("2025-04-03T02:00:00Z");
+
+    private final SlackHttpClient slackHttpClient = mock(SlackHttpClient.class);
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void should_read_office_from_custom_profile_field() {
+
+        givenProfiles();
+
+        final Map<String, Office> offices = resolverAt(OFFICE_FIELD, NOW).resolveOffices(Set.of(USER_ID_1, USER_ID_2));
+
+        assertEquals(Map.of(USER_ID_1, Office.MALMO), offices);
+    }
+
+    @Test
+    public void should_read_office_from_profile_title() {
+
+        givenProfiles();
+
+        final Map<String, Office> offices = resolverAt("title", NOW).resolveOffices(Set.of(USER_ID_1, USER_ID_2));
+
+        assertEquals(Map.of(USER_ID_1, Office.GOTHENBURG), offices);
+    }
+
+    @Test
+    public void should_serve_profiles_from_file_until_they_expire() {
+
+        givenProfiles();
+
+        final ProfileOfficeResolver firstRun = resolverAt(OFFICE_FIELD, NOW);
+        firstRun.resolveOffices(Set.of(USER_ID_1, USER_ID_2));
+        firstRun.save();
+
+        final Map<String, Office> offices = resolverAt(OFFICE_FIELD, NOW.plus(Duration.ofHours(23))).resolveOffices(Set.of(USER_ID_1, USER_ID_2));
+
+        assertEquals(Map.of(USER_ID_1, Office.MALMO), offices);
+        verify(slackHttpClient, times(1)).fetchUserProfile(eq(USER_ID_1));
+        verify(slackHttpClient, times(1)).fetchUserProfile(eq(USER_ID_2));
+
+        resolverAt(OFFICE_FIELD, NOW.plus(Duration.ofHours(25))).resolveOffices(Set.of(USER_ID_1));
+
+        verify(slackHttpClient, times(2)).fetchUserProfile(eq(USER_ID_1));
+    }
+
+    private void givenProfiles() {
+
+        given(slackHttpClient.fetchUserProfile(eq(USER_ID_1)))
+                .willReturn(new SlackUserProfileResponse(true,
+                        new Profile("Account Manager, Göteborg", Map.of(OFFICE_FIELD, new ProfileField("Malmö", ""))), null));
+
+        given(slackHttpClient.fetchUserProfile(eq(USER_ID_2)))
+                .willReturn(new SlackUserProfileResponse(true, new Profile("Consultant", Map.of()), null));
+    }
+
+    private ProfileOfficeResolver resolverAt(final String profileField, final Instant instant) {
+        return new ProfileOfficeResolver(slackHttpClient, profileField, cacheDirectory, Duration.ofHours(24), 2,
+                Clock.fixed(instant, ZoneOffset.UTC), Logger.getLogger("test"));
+    }
+}
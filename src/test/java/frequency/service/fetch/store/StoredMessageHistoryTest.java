@@ -0,0 +1,224 @@
+package frequency.service.fetch.store;
+
+import meeting.frequency.service.fetch.MessageHistory;
+import meeting.frequency.service.fetch.ThreadedMessageHistory;
+import meeting.frequency.service.fetch.store.MessageStore;
+import meeting.frequency.service.fetch.store.StoredMessageHistory;
+import meeting.frequency.service.fetch.store.model.StoredMessage;
+import meeting.frequency.service.integration.slack.SlackApiException;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class StoredMessageHistoryTest {
+
+    private final static String CHANNEL_ID = "C123";
+    private final static Instant NOW = Instant.parse("2025-04-03T12:00:00Z");
+    private final static long WINDOW_START = NOW.minus(Duration.ofDays(7)).getEpochSecond();
+    private final static long FIRST_TS = NOW.minus(Duration.ofDays(3)).getEpochSecond();
+    private final static long SECOND_TS = NOW.minus(Duration.ofHours(2)).getEpochSecond();
+
+    private final SlackHttpClient slackHttpClient = mock(SlackHttpClient.class);
+    private final Logger logger = Logger.getLogger(StoredMessageHistoryTest.class.getName());
+
+    @TempDir
+    Path storeDirectory;
+
+    @Test
+    public void should_fetch_full_window_without_checkpoint() {
+
+        given(slackHttpClient.streamSlackHistory(WINDOW_START))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica"), message(FIRST_TS, "Volvo")));
+
+        final List<MessagesItem> result = history().messagesSince(WINDOW_START).toList();
+
+        assertEquals(List.of(message(FIRST_TS, "Volvo"), message(SECOND_TS, "Ica")), result);
+    }
+
+    @Test
+    public void should_only_fetch_after_checkpoint_and_reconcile_edits() {
+
+        given(slackHttpClient.streamSlackHistory(WINDOW_START))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica"), message(FIRST_TS, "Volvo")));
+        history().messagesSince(WINDOW_START).toList();
+
+        final long fetchFrom = SECOND_TS - Duration.ofDays(1).toSeconds();
+        given(slackHttpClient.streamSlackHistory(fetchFrom))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica, Scania")));
+
+        final List<MessagesItem> result = history().messagesSince(WINDOW_START).toList();
+
+        verify(slackHttpClient).streamSlackHistory(fetchFrom);
+        assertEquals(List.of(message(FIRST_TS, "Volvo"), message(SECOND_TS, "Ica, Scania")), result);
+    }
+
+    @Test
+    public void should_serve_window_from_store_when_nothing_new() {
+
+        given(slackHttpClient.streamSlackHistory(WINDOW_START))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica"), message(FIRST_TS, "Volvo")));
+        history().messagesSince(WINDOW_START).toList();
+
+        given(slackHttpClient.streamSlackHistory(SECOND_TS - Duration.ofDays(1).toSeconds()))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica")));
+
+        final List<MessagesItem> result = history().messagesSince(FIRST_TS + 1).toList();
+
+        assertEquals(List.of(message(SECOND_TS, "Ica")), result);
+    }
+
+    @Test
+    public void should_keep_checkpoint_when_fetch_fails() {
+
+        final MessageStore messageStore = new MessageStore(storeDirectory, CHANNEL_ID, logger);
+        final StoredMessageHistory failingHistory = new StoredMessageHistory(startTimestamp -> Stream.concat(
+                Stream.of(message(SECOND_TS, "Ica")),
+                Stream.<MessagesItem>generate(() -> {
+                    throw new SlackApiException("internal_error");
+                }).limit(1)),
+                messageStore, Duration.ofDays(1), Clock.fixed(NOW, ZoneOffset.UTC), logger);
+
+        assertThrows(SlackApiException.class, () -> failingHistory.messagesSince(WINDOW_START));
+        assertEquals(Optional.empty(), messageStore.checkpoint());
+    }
+
+    @Test
+    public void should_keep_checkpoint_when_a_thread_cannot_be_read() {
+
+        final MessageStore messageStore = new MessageStore(storeDirectory, CHANNEL_ID, logger);
+        final String threadTs = FIRST_TS + ".000100";
+        final StoredMessageHistory failingHistory = new StoredMessageHistory(
+                new ThreadedMessageHistory(
+                        startTimestamp -> Stream.of(message(SECOND_TS, "Ica"), thread(threadTs, 1, (FIRST_TS + 60) + ".000100")),
+                        (ts, startTimestamp) -> {
+                            throw new SlackApiException("ratelimited");
+                        },
+                        1, logger),
+                messageStore, Duration.ofDays(1), Clock.fixed(NOW, ZoneOffset.UTC), logger);
+
+        assertThrows(SlackApiException.class, () -> failingHistory.messagesSince(WINDOW_START));
+        assertEquals(Optional.empty(), messageStore.checkpoint());
+    }
+
+    @Test
+    public void should_read_new_replies_of_threads_stored_in_earlier_runs() {
+
+        final MessageStore messageStore = new MessageStore(storeDirectory, CHANNEL_ID, logger);
+        final String threadTs = FIRST_TS + ".000100";
+        final String oldReplyTs = (FIRST_TS + 60) + ".000100";
+        final String newReplyTs = (SECOND_TS + 60) + ".000100";
+        final MessagesItem firstRunParent = thread(threadTs, 1, oldReplyTs);
+        final MessagesItem secondRunParent = thread(threadTs, 2, newReplyTs);
+        final MessagesItem oldReply = reply(oldReplyTs, threadTs);
+        final MessagesItem newReply = reply(newReplyTs, threadTs);
+        final MessageHistory slackHistory = mock(MessageHistory.class);
+        final long fetchFrom = SECOND_TS - Duration.ofDays(1).toSeconds();
+
+        given(slackHistory.messagesSince(WINDOW_START))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica"), firstRunParent, oldReply));
+        given(slackHistory.repliesSince(List.of(threadTs), fetchFrom))
+                .willReturn(Stream.of(secondRunParent, newReply));
+        new StoredMessageHistory(slackHistory, messageStore, Duration.ofDays(1), Clock.fixed(NOW, ZoneOffset.UTC), logger)
+                .messagesSince(WINDOW_START).toList();
+
+        //The parent is older than the range read from the channel, only the stored copy knows about the thread
+        given(slackHistory.messagesSince(fetchFrom)).willReturn(Stream.of(message(SECOND_TS, "Ica")));
+
+        final List<MessagesItem> result = new StoredMessageHistory(slackHistory, messageStore, Duration.ofDays(1),
+                Clock.fixed(NOW, ZoneOffset.UTC), logger).messagesSince(WINDOW_START).toList();
+
+        assertEquals(List.of(secondRunParent, oldReply, message(SECOND_TS, "Ica"), newReply), result);
+        assertEquals(Optional.of(SECOND_TS + ".000100"), messageStore.checkpoint());
+    }
+
+    @Test
+    public void should_drop_messages_deleted_in_slack() {
+
+        final MessageStore messageStore = new MessageStore(storeDirectory, CHANNEL_ID, logger);
+        given(slackHttpClient.streamSlackHistory(WINDOW_START))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica"), message(FIRST_TS, "Volvo")));
+        new StoredMessageHistory(slackHttpClient, messageStore, Duration.ofDays(7), Clock.fixed(NOW, ZoneOffset.UTC), logger)
+                .messagesSince(WINDOW_START).toList();
+
+        final long fetchFrom = SECOND_TS - Duration.ofDays(7).toSeconds();
+        given(slackHttpClient.streamSlackHistory(fetchFrom)).willReturn(Stream.of(message(SECOND_TS, "Ica")));
+
+        final List<MessagesItem> result = new StoredMessageHistory(slackHttpClient, messageStore, Duration.ofDays(7),
+                Clock.fixed(NOW, ZoneOffset.UTC), logger).messagesSince(WINDOW_START).toList();
+
+        assertEquals(List.of(message(SECOND_TS, "Ica")), result);
+    }
+
+    @Test
+    public void should_drop_deleted_replies_of_threads_read_again() {
+
+        final MessageStore messageStore = new MessageStore(storeDirectory, CHANNEL_ID, logger);
+        final String threadTs = FIRST_TS + ".000100";
+        final String replyTs = (FIRST_TS + 60) + ".000100";
+        final MessageHistory slackHistory = mock(MessageHistory.class);
+        final long fetchFrom = SECOND_TS - Duration.ofDays(7).toSeconds();
+
+        given(slackHistory.messagesSince(WINDOW_START))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica"), thread(threadTs, 1, replyTs), reply(replyTs, threadTs)));
+        new StoredMessageHistory(slackHistory, messageStore, Duration.ofDays(7), Clock.fixed(NOW, ZoneOffset.UTC), logger)
+                .messagesSince(WINDOW_START).toList();
+
+        given(slackHistory.messagesSince(fetchFrom))
+                .willReturn(Stream.of(message(SECOND_TS, "Ica"), thread(threadTs, 0, null)));
+
+        final List<MessagesItem> result = new StoredMessageHistory(slackHistory, messageStore, Duration.ofDays(7),
+                Clock.fixed(NOW, ZoneOffset.UTC), logger).messagesSince(WINDOW_START).toList();
+
+        assertEquals(List.of(thread(threadTs, 0, null), message(SECOND_TS, "Ica")), result);
+    }
+
+    @Test
+    public void should_remove_segments_older_than_retention() {
+
+        final MessageStore messageStore = new MessageStore(storeDirectory, CHANNEL_ID, Duration.ofDays(14), logger);
+        final long expiredTs = NOW.minus(Duration.ofDays(15)).getEpochSecond();
+        messageStore.append(Stream.of(message(expiredTs, "Volvo"), message(FIRST_TS, "Ica")));
+
+        messageStore.prune(NOW.getEpochSecond());
+
+        assertEquals(List.of(message(FIRST_TS, "Ica").ts()),
+                messageStore.read(0, NOW.getEpochSecond()).stream().map(StoredMessage::ts).toList());
+        assertFalse(Files.exists(storeDirectory.resolve(CHANNEL_ID).resolve("2025-03-19.jsonl")));
+    }
+
+    private StoredMessageHistory history() {
+        return new StoredMessageHistory(slackHttpClient, new MessageStore(storeDirectory, CHANNEL_ID, logger),
+                Duration.ofDays(1), Clock.fixed(NOW, ZoneOffset.UTC), logger);
+    }
+
+    private static MessagesItem thread(final String ts, final int replies, final String latestReply) {
+        return new MessagesItem("2 möten: Volvo, Ica", "message", "U1", ts, List.of(), ts, replies, latestReply);
+    }
+
+    private static MessagesItem reply(final String ts, final String threadTs) {
+        return new MessagesItem("1 möte (Scania)", "message", "U2", ts, List.of(), threadTs, 0, null);
+    }
+
+    private static MessagesItem message(final long epochSecond, final String text) {
+        return new MessagesItem(text, "message", "U1", epochSecond + ".000100", List.of());
+    }
+}
@@ -0,0 +1,92 @@
+package frequency.service.fetch.user;
+
+import meeting.frequency.service.fetch.user.AdaptiveUserResolver;
+import meeting.frequency.service.fetch.user.BulkUserResolver;
+import meeting.frequency.service.fetch.user.UserResolver;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.pojo.ResponseMetadata;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserListResponse;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AdaptiveUserResolverTest {
+
+    private final static User USER_1 = new User("123", "Test testsson");
+    private final static User USER_2 = new User("456", "Bengt testsson");
+    private final static User USER_3 = new User("789", "Other testsson");
+
+    private final SlackHttpClient slackHttpClient = mock(SlackHttpClient.class);
+    private final UserResolver targetedResolver = mock(UserResolver.class);
+    private final AdaptiveUserResolver adaptiveUserResolver =
+            new AdaptiveUserResolver(new BulkUserResolver(slackHttpClient, Logger.getLogger("test")), targetedResolver, 2);
+
+    @Test
+    public void should_use_targeted_lookups_below_threshold() {
+
+        given(targetedResolver.resolveUsers(eq(Set.of(USER_1.id())))).willReturn(Map.of(USER_1.id(), USER_1));
+
+        final Map<String, User> result = adaptiveUserResolver.resolveUsers(Set.of(USER_1.id()));
+
+        assertEquals(Map.of(USER_1.id(), USER_1), result);
+        verify(slackHttpClient, never()).fetchUserList(any());
+    }
+
+    @Test
+    public void should_stop_user_list_sweep_when_all_users_are_found() {
+
+        given(slackHttpClient.fetchUserList(eq(null)))
+                .willReturn(new SlackUserListResponse(true, List.of(USER_1, USER_3), null, new ResponseMetadata("page2")));
+        given(slackHttpClient.fetchUserList(eq("page2")))
+                .willReturn(new SlackUserListResponse(true, List.of(USER_2), null, new ResponseMetadata("page3")));
+
+        final Map<String, User> result = adaptiveUserResolver.resolveUsers(Set.of(USER_1.id(), USER_2.id()));
+
+        assertEquals(Map.of(USER_1.id(), USER_1, USER_2.id(), USER_2), result);
+        verify(slackHttpClient, never()).fetchUserList(eq("page3"));
+        verify(targetedResolver, never()).resolveUsers(any());
+    }
+
+    @Test
+    public void should_continue_one_user_list_sweep_for_every_batch() {
+
+        final User user4 = new User("012", "Fourth testsson");
+
+        given(slackHttpClient.fetchUserList(eq(null)))
+                .willReturn(new SlackUserListResponse(true, List.of(USER_1, USER_2), null, new ResponseMetadata("page2")));
+        given(slackHttpClient.fetchUserList(eq("page2")))
+                .willReturn(new SlackUserListResponse(true, List.of(USER_3, user4), null, new ResponseMetadata("page3")));
+
+        adaptiveUserResolver.resolveUsers(Set.of(USER_1.id(), USER_2.id()));
+        final Map<String, User> result = adaptiveUserResolver.resolveUsers(Set.of(USER_2.id(), USER_3.id()));
+
+        assertEquals(Map.of(USER_2.id(), USER_2, USER_3.id(), USER_3), result);
+        verify(slackHttpClient, times(1)).fetchUserList(eq(null));
+        verify(slackHttpClient, never()).fetchUserList(eq("page3"));
+    }
+
+    @Test
+    public void should_look_up_users_missing_from_user_list() {
+
+        given(slackHttpClient.fetchUserList(eq(null)))
+                .willReturn(new SlackUserListResponse(true, List.of(USER_1), null, new ResponseMetadata("")));
+        given(targetedResolver.resolveUsers(eq(Set.of(USER_2.id())))).willReturn(Map.of(USER_2.id(), USER_2));
+
+        final Map<String, User> result = adaptiveUserResolver.resolveUsers(Set.of(USER_1.id(), USER_2.id()));
+
+        assertEquals(Map.of(USER_1.id(), USER_1, USER_2.id(), USER_2), result);
+    }
+}
@@ -0,0 +1,142 @@
+package frequency.service.fetch.user;
+
+import meeting.frequency.service.fetch.user.UserDirectory;
+import meeting.frequency.service.fetch.user.UserResolver;
+import meeting.frequency.service.integration.slack.pojo.user.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserDirectoryTest {
+
+    private final static String USER_ID_1 = "123";
+    private final static String USER_ID_2 = "456";
+    private final static Instant NOW = Instant.parse("2025-04-03T02:00:00Z");
+
+    private final UserResolver delegate = mock(UserResolver.class);
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void should_serve_second_lookup_from_memory() {
+
+        givenDelegateResolvesBothUsers();
+        final UserDirectory userDirectory = userDirectoryAt(NOW);
+
+        userDirectory.resolveUsers(Set.of(USER_ID_1, USER_ID_2));
+        final Map<String, User> result = userDirectory.resolveUsers(Set.of(USER_ID_1, USER_ID_2));
+
+        assertEquals(Map.of(USER_ID_1, new User(USER_ID_1, "Test testsson"), USER_ID_2, new User(USER_ID_2, "Bengt testsson")), result);
+        verify(delegate, times(1)).resolveUsers(any());
+    }
+
+    @Test
+    public void should_serve_lookup_from_file_on_next_run() {
+
+        givenDelegateResolvesBothUsers();
+        runAt(NOW, Set.of(USER_ID_1, USER_ID_2));
+
+        final Map<String, User> result = userDirectoryAt(NOW.plus(Duration.ofDays(7))).resolveUsers(Set.of(USER_ID_1));
+
+        assertEquals(Map.of(USER_ID_1, new User(USER_ID_1, "Test testsson")), result);
+        verify(delegate, times(1)).resolveUsers(any());
+    }
+
+    @Test
+    public void should_refresh_expired_users() {
+
+        givenDelegateResolvesBothUsers();
+        runAt(NOW, Set.of(USER_ID_1, USER_ID_2));
+
+        userDirectoryAt(NOW.plus(Duration.ofDays(15))).resolveUsers(Set.of(USER_ID_1, USER_ID_2));
+
+        verify(delegate, times(2)).resolveUsers(eq(Set.of(USER_ID_1, USER_ID_2)));
+    }
+
+    @Test
+    public void should_cache_users_that_could_not_be_found() {
+
+        given(delegate.resolveUsers(any())).willReturn(Map.of(USER_ID_1, User.EMPTY_USER()));
+        runAt(NOW, Set.of(USER_ID_1));
+
+        final Map<String, User> result = userDirectoryAt(NOW.plus(Duration.ofHours(1))).resolveUsers(Set.of(USER_ID_1));
+
+        assertEquals(Map.of(), result);
+        verify(delegate, times(1)).resolveUsers(any());
+    }
+
+    @Test
+    public void should_look_up_again_when_lookup_failed() {
+
+        given(delegate.resolveUsers(any())).willReturn(Map.of());
+        runAt(NOW, Set.of(USER_ID_1));
+
+        userDirectoryAt(NOW.plus(Duration.ofHours(1))).resolveUsers(Set.of(USER_ID_1));
+
+        verify(delegate, times(2)).resolveUsers(eq(Set.of(USER_ID_1)));
+    }
+
+    @Test
+    public void should_write_file_once_when_run_ends() {
+
+        givenDelegateResolvesBothUsers();
+        final UserDirectory userDirectory = userDirectoryAt(NOW);
+
+        userDirectory.resolveUsers(Set.of(USER_ID_1));
+        userDirectory.resolveUsers(Set.of(USER_ID_2));
+
+        assertFalse(Files.exists(cacheDirectory.resolve("slack-users.json")));
+
+        userDirectory.save();
+        userDirectoryAt(NOW.plus(Duration.ofHours(1))).resolveUsers(Set.of(USER_ID_1, USER_ID_2));
+
+        verify(delegate, times(2)).resolveUsers(any());
+    }
+
+    @Test
+    public void should_not_call_delegate_when_nothing_is_requested() {
+
+        userDirectoryAt(NOW).resolveUsers(Set.of());
+
+        verify(delegate, never()).resolveUsers(any());
+    }
+
+    private void runAt(final Instant instant, final Set<String> userIds) {
+
+        final UserDirectory userDirectory = userDirectoryAt(instant);
+        userDirectory.resolveUsers(userIds);
+        userDirectory.save();
+    }
+
+    private UserDirectory userDirectoryAt(final Instant instant) {
+
+        return new UserDirectory(delegate, cacheDirectory, 100, Duration.ofDays(14), Duration.ofDays(1),
+                Clock.fixed(instant, ZoneOffset.UTC), Logger.getLogger("test"));
+    }
+
+    private void givenDelegateResolvesBothUsers() {
+
+        given(delegate.resolveUsers(any()))
+                .willReturn(Map.of(USER_ID_1, new User(USER_ID_1, "Test testsson"), USER_ID_2, new User(USER_ID_2, "Bengt testsson")));
+    }
+}
@@ -6,6 +6,7 @@ import meeting.frequency.service.process.model.MeetingFrequency;
 import org.apache.commons.collections4.map.LinkedMap;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,16 @@ class ExcelDocumentServiceTest {
         verify(excelClient).generateDocument(eq(meetingFrequencyList), eq(expectedMapOfficeToMeetings()));
     }
 
+    @Test
+    public void should_write_document_to_stream() throws IOException {
+        List<MeetingFrequency> meetingFrequencyList = givenMeetingFrequency();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        service.writeDocument(meetingFrequencyList, outputStream);
+
+        verify(excelClient).writeDocument(eq(meetingFrequencyList), eq(expectedMapOfficeToMeetings()), eq(outputStream));
+    }
+
     private Map<String, Integer> expectedMapOfficeToMeetings() {
 
         LinkedMap<String, Integer> map = new LinkedMap<>();
@@ -40,9 +51,9 @@ class ExcelDocumentServiceTest {
     private List<MeetingFrequency> givenMeetingFrequency() {
 
         return List.of(
-                new MeetingFrequency("Test1", 2, List.of(), "Stockholm"),
-                new MeetingFrequency("Test2", 1, List.of(), "Oslo"),
-                new MeetingFrequency("Test3", 3, List.of(), "Stockholm")
+                new MeetingFrequency("1", "Test1", 2, List.of(), "Stockholm"),
+                new MeetingFrequency("2", "Test2", 1, List.of(), "Oslo"),
+                new MeetingFrequency("3", "Test3", 3, List.of(), "Stockholm")
         );
     }
 
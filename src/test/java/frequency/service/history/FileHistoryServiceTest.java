@@ -0,0 +1,79 @@
+package frequency.service.history;
+
+import meeting.frequency.service.history.FileHistoryService;
+import meeting.frequency.service.history.model.WeeklyRollup;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileHistoryServiceTest {
+
+    //Thursday runs in ISO week 14 and 16 of 2025, reading the 7 days from the Thursday of week 13 and 15
+    private final static Instant WEEK_13 = Instant.parse("2025-04-03T02:00:00Z");
+    private final static Instant WEEK_15 = Instant.parse("2025-04-17T02:00:00Z");
+
+    private final static List<MeetingFrequency> FIRST_WEEK = List.of(
+            new MeetingFrequency("123", "Test testsson", 2, List.of("Ica", "Volvo"), "Stockholm"),
+            new MeetingFrequency("456", "Bengt testsson", 1, List.of("Ica"), "Göteborg"));
+    private final static List<MeetingFrequency> SECOND_WEEK = List.of(
+            new MeetingFrequency("123", "Test testsson", 3, List.of("Scania"), "Stockholm"));
+
+    @TempDir
+    Path historyDirectory;
+
+    @Test
+    public void should_return_trend_with_empty_weeks_between_results() {
+
+        historyAt(WEEK_13).recordWeek(FIRST_WEEK);
+
+        final List<WeeklyRollup> trend = historyAt(WEEK_15).recordWeek(SECOND_WEEK);
+
+        assertEquals(List.of(
+                new WeeklyRollup("2025-W13",
+                        Map.of("123", 2, "456", 1),
+                        Map.of("Stockholm", 2, "Göteborg", 1),
+                        Map.of("Ica", 2, "Volvo", 1),
+                        Map.of("123", "Test testsson", "456", "Bengt testsson")),
+                WeeklyRollup.empty("2025-W14"),
+                new WeeklyRollup("2025-W15",
+                        Map.of("123", 3),
+                        Map.of("Stockholm", 3),
+                        Map.of("Scania", 1),
+                        Map.of("123", "Test testsson"))), trend);
+    }
+
+    @Test
+    public void should_replace_result_when_week_is_recorded_again() {
+
+        historyAt(WEEK_15).recordWeek(FIRST_WEEK);
+        historyAt(WEEK_15).recordWeek(SECOND_WEEK);
+
+        assertEquals(SECOND_WEEK, historyAt(WEEK_15).week("2025-W15"));
+        assertEquals(List.of(WeeklyRollup.of("2025-W15", SECOND_WEEK)), historyAt(WEEK_15).lastWeeks(1));
+    }
+
+    @Test
+    public void should_count_namesakes_apart() {
+
+        final WeeklyRollup rollup = WeeklyRollup.of("2025-W15", List.of(
+                new MeetingFrequency("123", "Test testsson", 2, List.of("Ica"), "Stockholm"),
+                new MeetingFrequency("789", "Test testsson", 1, List.of("Saab"), "Malmö")));
+
+        assertEquals(Map.of("123", 2, "789", 1), rollup.people());
+        assertEquals(Map.of("123", "Test testsson", "789", "Test testsson"), rollup.names());
+    }
+
+    private FileHistoryService historyAt(final Instant now) {
+        return new FileHistoryService(historyDirectory, 3, Clock.fixed(now, ZoneOffset.UTC), Logger.getLogger("test"));
+    }
+}
@@ -1,26 +1,38 @@
 package frequency.service.integration.slack;
 
 import meeting.frequency.secret.model.SlackSecrets;
+import meeting.frequency.service.integration.slack.SlackApiException;
 import meeting.frequency.service.integration.slack.SlackHttpClient;
-import meeting.frequency.service.integration.slack.pojo.BlocksItem;
-import meeting.frequency.service.integration.slack.pojo.ElementsItem;
 import meeting.frequency.service.integration.slack.pojo.MessagesItem;
+import meeting.frequency.service.integration.slack.pojo.ResponseMetadata;
 import meeting.frequency.service.integration.slack.pojo.SlackHistoryResponse;
+import meeting.frequency.service.integration.slack.pojo.user.ProfileField;
 import meeting.frequency.service.integration.slack.pojo.user.SlackUserInfoResponse;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserListResponse;
+import meeting.frequency.service.integration.slack.pojo.user.SlackUserProfileResponse;
 import meeting.frequency.service.integration.slack.pojo.user.User;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -28,6 +40,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class SlackHttpClientTest {
@@ -48,6 +62,17 @@ class SlackHttpClientTest {
         thenEqualsExpectedResponse(slackHistoryResponse);
     }
 
+    @Test
+    public void should_fetch_gzip_encoded_history() {
+
+        givenSlackReturnsGzippedJson("slack/historyResponse.json");
+
+        final SlackHistoryResponse slackHistoryResponse =
+                slackHttpClient.fetchSlackHistory(ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).minusDays(7).toEpochSecond());
+
+        thenEqualsExpectedResponse(slackHistoryResponse);
+    }
+
     @Test
     public void should_handle_when_fetch_history_call_fails() {
 
@@ -57,10 +82,50 @@ class SlackHttpClientTest {
                 slackHttpClient.fetchSlackHistory(ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).minusDays(7).toEpochSecond());
 
 
-        final SlackHistoryResponse expected = new SlackHistoryResponse(false, List.of(), false, "something went wrong");
+        final SlackHistoryResponse expected = new SlackHistoryResponse(false, List.of(), false, "something went wrong", null);
         assertEquals(expected, slackHistoryResponse);
     }
 
+    @Test
+    public void should_follow_cursor_when_fetching_history() {
+
+        givenSlackReturnsJson("slack/historyResponsePage.json", "slack/historyResponse.json");
+
+        final List<String> timestamps =
+                slackHttpClient.streamSlackHistory(ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).minusDays(7).toEpochSecond())
+                        .map(MessagesItem::ts)
+                        .toList();
+
+        assertEquals(List.of("1743512273.230809", "1743508273.230809", "1743504626.880599"), timestamps);
+    }
+
+    @Test
+    public void should_fail_streaming_history_when_page_fails() {
+
+        givenSlackReturnsJson("slack/historyResponsePage.json", "slack/historyResponseError.json");
+
+        final SlackApiException exception = assertThrows(SlackApiException.class, () ->
+                slackHttpClient.streamSlackHistory(ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).minusDays(7).toEpochSecond())
+                        .count());
+
+        assertEquals("something went wrong", exception.error());
+    }
+
+    @Test
+    public void should_stream_thread_replies() {
+
+        givenSlackReturnsJson("slack/repliesResponse.json");
+
+        final List<MessagesItem> replies = slackHttpClient.streamSlackReplies("1743508273.230809",
+                ZonedDateTime.now(ZoneId.of("Europe/Stockholm")).minusDays(7).toEpochSecond()).toList();
+
+        assertEquals(2, replies.size());
+        assertTrue(replies.get(0).hasReplies());
+        assertEquals("1743508290.100200", replies.get(0).latestReply());
+        assertEquals(new MessagesItem("1 möte (Scania)", "message", "U0BENGT", "1743508290.100200", List.of(),
+                "1743508273.230809", 0, null), replies.get(1));
+    }
+
     @Test
     public void should_return_error_user_information() {
 
@@ -87,6 +152,58 @@ class SlackHttpClientTest {
         assertEquals(expectedResponse, result);
     }
 
+    @Test
+    public void should_fetch_user_profile() {
+
+        givenSlackReturnsJson("slack/userProfileResponse.json");
+
+        final SlackUserProfileResponse result = slackHttpClient.fetchUserProfile("UMLF");
+
+        assertEquals("Account Manager, Göteborg", result.profile().title());
+        assertEquals(new ProfileField("Malmö", ""), result.profile().fields().get("Xf06054AAA"));
+    }
+
+    @Test
+    public void should_encode_user_id_in_query() throws IOException, InterruptedException {
+
+        givenSlackReturnsJson("slack/userProfileResponse.json");
+
+        slackHttpClient.fetchUserProfile("U1&include_labels=true");
+
+        final ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("user=U1%26include_labels%3Dtrue", request.getValue().uri().getRawQuery());
+    }
+
+    @Test
+    public void should_fetch_user_list() {
+
+        givenSlackReturnsJson("slack/userListResponse.json");
+
+        final SlackUserListResponse result = slackHttpClient.fetchUserList(null);
+
+        assertEquals(List.of(new User("UMLF", "Nikita Berezkin"), new User("U0BENGT", "Bengt testsson")), result.members());
+        assertEquals("dXNlcjpVMEc5V0ZYTlo=", result.nextCursor());
+    }
+
+    @Test
+    public void should_retry_after_being_rate_limited() {
+
+        givenSlackIsRateLimitedThenReturnsJson(1, "slack/userResponse.json");
+
+        final SlackUserInfoResponse result = slackHttpClient.fetchUserInformation("UMLF");
+
+        assertEquals(new SlackUserInfoResponse(true, new User("UMLF", "Nikita Berezkin"), null), result);
+    }
+
+    @Test
+    public void should_fail_when_rate_limit_does_not_lift() {
+
+        givenSlackIsRateLimitedThenReturnsJson(5, "slack/userResponse.json");
+
+        assertThrows(RuntimeException.class, () -> slackHttpClient.fetchUserInformation("UMLF"));
+    }
+
     @Test
     public void should_upload_file() {
 
@@ -97,6 +214,16 @@ class SlackHttpClientTest {
         assertTrue(success);
     }
 
+    @Test
+    public void should_upload_content_from_memory() {
+
+        givenSlackReturnsJson("slack/startUploadFile.json", "slack/emptyResponse.json", "slack/completeUploadFile.json");
+
+        final boolean success = slackHttpClient.uploadFile("MeetingFrequency.xlsx", new byte[]{1, 2, 3});
+
+        assertTrue(success);
+    }
+
     @Test
     public void should_fail_when_start_upload_file_does_not_work() {
 
@@ -115,19 +242,58 @@ class SlackHttpClientTest {
         assertFalse(success);
     }
 
+    @Test
+    public void should_not_send_complete_upload_again_after_timeout() throws IOException, InterruptedException {
+
+        final List<String> responses = List.of(
+                new String(getClass().getClassLoader().getResourceAsStream("slack/startUploadFile.json").readAllBytes()),
+                new String(getClass().getClassLoader().getResourceAsStream("slack/emptyResponse.json").readAllBytes()));
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        //Slack may already have shared the file when the answer times out, a retry would post the report twice
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    final int i = counter.getAndIncrement();
+                    if (i >= responses.size()) {
+                        throw new HttpTimeoutException("request timed out");
+                    }
+                    return respond(invocation.getArgument(1), 200, responses.get(i), HttpHeaders.of(Map.of(), (name, value) -> true));
+                });
+
+        assertThrows(RuntimeException.class, () -> slackHttpClient.uploadFile("MeetingFrequency.xlsx", new byte[]{1, 2, 3}));
+        verify(httpClient, times(3)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
     private static void thenEqualsExpectedResponse(final SlackHistoryResponse slackHistoryResponse) {
 
-        final List<MessagesItem> messagesItems = List.of(new MessagesItem("Testing1!", "message", "UMLF", "1743508273" +
-                                                                                                          ".230809",
-                        List.of(new BlocksItem(List.of(new ElementsItem(List.of(new ElementsItem(null, "text",
-                                "Testing1!")), "rich_text_section", null)), "rich_text", "tCqgl"))),
+        //Only the presence of blocks is kept from the response
+        final List<MessagesItem> messagesItems = List.of(new MessagesItem("Testing1!", "message", "UMLF", "1743508273.230809", List.of()),
                 new MessagesItem("<@UMLF> has joined the channel", "message", "UMLF", "1743504626.880599", null)
         );
-        final SlackHistoryResponse expected = new SlackHistoryResponse(true, messagesItems, false, null);
+        final SlackHistoryResponse expected = new SlackHistoryResponse(true, messagesItems, false, null, new ResponseMetadata(null));
 
         assertEquals(expected, slackHistoryResponse);
     }
 
+    private void givenSlackIsRateLimitedThenReturnsJson(final int rateLimitedResponses, final String fileName) {
+
+        try {
+            final String body = new String(getClass().getClassLoader().getResourceAsStream(fileName).readAllBytes());
+            final HttpHeaders retryAfter = HttpHeaders.of(Map.of("Retry-After", List.of("0")), (name, value) -> true);
+
+            AtomicInteger counter = new AtomicInteger(0);
+
+            when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                    .thenAnswer(invocation -> {
+                        final boolean rateLimited = counter.getAndIncrement() < rateLimitedResponses;
+
+                        return respond(invocation.getArgument(1), rateLimited ? 429 : 200, rateLimited ? "" : body, retryAfter);
+                    });
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private void givenSlackReturnsJson(final String... fileNames) {
 
         try {
@@ -149,14 +315,74 @@ class SlackHttpClientTest {
                         int i = counter.getAndIncrement();
                         String body = (i < responses.size()) ? responses.get(i) : "Default Response";
 
-                        HttpResponse<String> mockResponse = mock(HttpResponse.class);
-                        when(mockResponse.body()).thenReturn(body);
-                        when(mockResponse.statusCode()).thenReturn(200);
-                        return mockResponse;
+                        return respond(invocation.getArgument(1), 200, body, HttpHeaders.of(Map.of(), (name, value) -> true));
                     });
         } catch (IOException | InterruptedException e) {
             throw new RuntimeException(e);
         }
     }
 
-}
\ No newline at end of file
+    private void givenSlackReturnsGzippedJson(final String fileName) {
+
+        try {
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(getClass().getClassLoader().getResourceAsStream(fileName).readAllBytes());
+            }
+            final HttpHeaders gzipEncoded = HttpHeaders.of(Map.of("Content-Encoding", List.of("gzip")), (name, value) -> true);
+
+            when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                    .thenAnswer(invocation -> respond(invocation.getArgument(1), 200, compressed.toByteArray(), gzipEncoded));
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static <T> HttpResponse<T> respond(final HttpResponse.BodyHandler<T> bodyHandler, final int statusCode,
+                                               final String body, final HttpHeaders headers) {
+
+        return respond(bodyHandler, statusCode, body.getBytes(StandardCharsets.UTF_8), headers);
+    }
+
+    //Feeds the body through the real body handler, as the HTTP client would
+    private static <T> HttpResponse<T> respond(final HttpResponse.BodyHandler<T> bodyHandler, final int statusCode,
+                                               final byte[] body, final HttpHeaders headers) {
+
+        final HttpResponse.BodySubscriber<T> bodySubscriber = bodyHandler.apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        });
+
+        bodySubscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(final long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        bodySubscriber.onNext(List.of(ByteBuffer.wrap(body)));
+        bodySubscriber.onComplete();
+
+        final T responseBody = bodySubscriber.getBody().toCompletableFuture().join();
+
+        HttpResponse<T> mockResponse = mock(HttpResponse.class);
+        when(mockResponse.body()).thenReturn(responseBody);
+        when(mockResponse.statusCode()).thenReturn(statusCode);
+        when(mockResponse.headers()).thenReturn(headers);
+        return mockResponse;
+    }
+}
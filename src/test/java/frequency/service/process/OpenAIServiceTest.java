@@ -14,10 +14,14 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class OpenAIServiceTest {
@@ -31,15 +35,63 @@ class OpenAIServiceTest {
 
         givenOpenAIReturnsValidResponse();
 
-        final List<MeetingFrequency> result = openAIService.process(List.of(new Message("Test testsson",
+        final List<MeetingFrequency> result = openAIService.process(List.of(new Message("123", "Test testsson",
                 "Stockholm", List.of("1 möte OP"))));
 
-        assertEquals(List.of(new MeetingFrequency("Test testsson", 1, List.of("OP"), "")), result);
+        assertEquals(List.of(new MeetingFrequency("123", "Test testsson", 1, List.of("OP"), "")), result);
     }
 
-    private void givenOpenAIReturnsValidResponse() {
+    @Test
+    public void should_send_messages_over_budget_in_separate_chunks() throws IOException, URISyntaxException {
+
+        final OpenAIService chunkedService = new OpenAIService(openAIClient, objectMapper, 2, 10, Logger.getLogger("test"));
+        final ChatCompletionService chatCompletionService = givenOpenAIReturnsValidResponse();
+
+        final List<MeetingFrequency> result = chunkedService.process(List.of(
+                new Message("123", "Test testsson", "Stockholm", List.of("1 möte OP, some more text to pass the budget")),
+                new Message("123", "Test testsson", "Stockholm", List.of("1 möte OP, some more text to pass the budget")),
+                new Message("123", "Test testsson", "Stockholm", List.of("1 möte OP, some more text to pass the budget"))));
+
+        assertEquals(3, result.size());
+        verify(chatCompletionService, times(3)).create(any());
+    }
+
+    @Test
+    public void should_retry_failed_chunk() throws IOException, URISyntaxException {
+
+        final ChatCompletionService chatCompletionService = givenOpenAIReturnsValidResponse();
+        when(chatCompletionService.create(any()))
+                .thenThrow(new RuntimeException("timeout"))
+                .thenReturn(validChatCompletion());
+
+        final List<MeetingFrequency> result = openAIService.process(List.of(new Message("123", "Test testsson",
+                "Stockholm", List.of("1 möte OP"))));
+
+        assertEquals(List.of(new MeetingFrequency("123", "Test testsson", 1, List.of("OP"), "")), result);
+        verify(chatCompletionService, times(2)).create(any());
+    }
+
+    @Test
+    public void should_reject_parallelism_below_one() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new OpenAIService(openAIClient, objectMapper, 0, 10, Logger.getLogger("test")));
+    }
+
+    private ChatCompletionService givenOpenAIReturnsValidResponse() {
+
+        ChatService chatService = mock(ChatService.class);
+        ChatCompletionService chatCompletionService = mock(ChatCompletionService.class);
+        when(openAIClient.chat()).thenReturn(chatService);
+        when(chatService.completions()).thenReturn(chatCompletionService);
+        when(chatCompletionService.create(any())).thenReturn(validChatCompletion());
 
-        final ChatCompletion chatCompletion = ChatCompletion.builder()
+        return chatCompletionService;
+    }
+
+    private ChatCompletion validChatCompletion() {
+
+        return ChatCompletion.builder()
                 .choices(List.of(ChatCompletion.Choice.builder()
                         .message(ChatCompletionMessage.builder()
                                 .refusal("no")
@@ -66,12 +118,6 @@ class OpenAIServiceTest {
                 .created(100)
                 .model("GTP4")
                 .build();
-
-        ChatService chatService = mock(ChatService.class);
-        ChatCompletionService chatCompletionService = mock(ChatCompletionService.class);
-        when(openAIClient.chat()).thenReturn(chatService);
-        when(chatService.completions()).thenReturn(chatCompletionService);
-        when(chatCompletionService.create(any())).thenReturn(chatCompletion);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package frequency.service.process.cache;
+
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.process.ProcessMessageService;
+import meeting.frequency.service.process.cache.CachingProcessMessageService;
+import meeting.frequency.service.process.cache.MeetingFrequencyCache;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class CachingProcessMessageServiceTest {
+
+    private final static Message MESSAGE_1 = new Message("123", "Test testsson", "Stockholm", List.of("1 möte OP"));
+    private final static Message MESSAGE_2 = new Message("456", "Bengt testsson", "Oslo", List.of("2 möten OP, Basalt"));
+    private final static MeetingFrequency FREQUENCY_1 = new MeetingFrequency("123", "Test testsson", 1, List.of("OP"), "Stockholm");
+    private final static MeetingFrequency FREQUENCY_2 = new MeetingFrequency("456", "Bengt testsson", 2, List.of("OP", "Basalt"), "Oslo");
+
+    private final ProcessMessageService delegate = mock(ProcessMessageService.class);
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void should_not_send_messages_again_on_rerun() throws IOException, URISyntaxException {
+
+        given(delegate.process(eq(List.of(MESSAGE_1, MESSAGE_2)))).willReturn(List.of(FREQUENCY_1, FREQUENCY_2));
+        service("gpt/1").process(List.of(MESSAGE_1, MESSAGE_2));
+
+        final ProcessMessageService rerunDelegate = mock(ProcessMessageService.class);
+        final List<MeetingFrequency> result = new CachingProcessMessageService(rerunDelegate,
+                new MeetingFrequencyCache(cacheDirectory, Logger.getLogger("test")), "gpt/1", Logger.getLogger("test"))
+                .process(List.of(MESSAGE_1, MESSAGE_2));
+
+        assertEquals(List.of(FREQUENCY_1, FREQUENCY_2), result);
+        verify(rerunDelegate, never()).process(any());
+    }
+
+    @Test
+    public void should_only_send_changed_messages() throws IOException, URISyntaxException {
+
+        final Message changedMessage = new Message("456", "Bengt testsson", "Oslo", List.of("3 möten OP, Basalt, Opera"));
+        final MeetingFrequency changedFrequency = new MeetingFrequency("456", "Bengt testsson", 3, List.of("OP", "Basalt", "Opera"), "Oslo");
+
+        given(delegate.process(eq(List.of(MESSAGE_1, MESSAGE_2)))).willReturn(List.of(FREQUENCY_1, FREQUENCY_2));
+        given(delegate.process(eq(List.of(changedMessage)))).willReturn(List.of(changedFrequency));
+
+        service("gpt/1").process(List.of(MESSAGE_1, MESSAGE_2));
+        final List<MeetingFrequency> result = service("gpt/1").process(List.of(MESSAGE_1, changedMessage));
+
+        assertEquals(List.of(FREQUENCY_1, changedFrequency), result);
+        verify(delegate).process(eq(List.of(changedMessage)));
+    }
+
+    @Test
+    public void should_cache_results_of_people_with_the_same_name_apart() throws IOException, URISyntaxException {
+
+        final Message anna = new Message("123", "Anna Berg", "Stockholm", List.of("1 möte Volvo"));
+        final Message otherAnna = new Message("456", "Anna Berg", "Malmö", List.of("2 möten Ica, Saab"));
+        final MeetingFrequency annaFrequency = new MeetingFrequency("123", "Anna Berg", 1, List.of("Volvo"), "Stockholm");
+        final MeetingFrequency otherAnnaFrequency = new MeetingFrequency("456", "Anna Berg", 2, List.of("Ica", "Saab"), "Malmö");
+
+        new CachingProcessMessageService(messages -> List.of(otherAnnaFrequency, annaFrequency),
+                new MeetingFrequencyCache(cacheDirectory, Logger.getLogger("test")), "gpt/1", Logger.getLogger("test"))
+                .process(List.of(anna, otherAnna));
+
+        final List<MeetingFrequency> result = new CachingProcessMessageService(messages -> List.of(),
+                new MeetingFrequencyCache(cacheDirectory, Logger.getLogger("test")), "gpt/1", Logger.getLogger("test"))
+                .process(List.of(anna, otherAnna));
+
+        assertEquals(List.of(annaFrequency, otherAnnaFrequency), result);
+    }
+
+    @Test
+    public void should_not_reuse_results_of_other_prompt_versions() {
+
+        assertNotEquals(MeetingFrequencyCache.key("gpt/1", MESSAGE_1), MeetingFrequencyCache.key("gpt/2", MESSAGE_1));
+    }
+
+    private CachingProcessMessageService service(final String version) {
+
+        return new CachingProcessMessageService(delegate, new MeetingFrequencyCache(cacheDirectory, Logger.getLogger("test")),
+                version, Logger.getLogger("test"));
+    }
+}
@@ -0,0 +1,60 @@
+package frequency.service.process.local;
+
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.process.ProcessMessageService;
+import meeting.frequency.service.process.local.LocalMeetingParserService;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class LocalMeetingParserServiceTest {
+
+    private final ProcessMessageService fallback = mock(ProcessMessageService.class);
+    private final LocalMeetingParserService service = new LocalMeetingParserService(fallback, Logger.getLogger("test"));
+
+    @Test
+    public void should_not_call_fallback_when_every_post_is_parsed() throws IOException, URISyntaxException {
+
+        final List<MeetingFrequency> result = service.process(List.of(
+                new Message("123", "Test testsson", "Stockholm", List.of("2 möten: Volvo, Scania", "1 möte (OP)"))));
+
+        assertEquals(List.of(new MeetingFrequency("123", "Test testsson", 3, List.of("Volvo", "Scania", "OP"), "Stockholm")), result);
+        verify(fallback, never()).process(any());
+    }
+
+    @Test
+    public void should_keep_people_with_the_same_name_apart() throws IOException, URISyntaxException {
+
+        final List<MeetingFrequency> result = service.process(List.of(
+                new Message("123", "Anna Berg", "Stockholm", List.of("1 möte: Volvo")),
+                new Message("456", "Anna Berg", "Malmö", List.of("2 möten: Ica, Saab"))));
+
+        assertEquals(List.of(
+                new MeetingFrequency("123", "Anna Berg", 1, List.of("Volvo"), "Stockholm"),
+                new MeetingFrequency("456", "Anna Berg", 2, List.of("Ica", "Saab"), "Malmö")), result);
+    }
+
+    @Test
+    public void should_only_send_unparsed_posts_to_fallback_and_merge() throws IOException, URISyntaxException {
+
+        given(fallback.process(eq(List.of(new Message("123", "Test testsson", "Stockholm", List.of("Två möten: Basalt, OP"))))))
+                .willReturn(List.of(new MeetingFrequency("123", "Test testsson", 2, List.of("Basalt", "OP"), "Stockholm")));
+
+        final List<MeetingFrequency> result = service.process(List.of(
+                new Message("123", "Test testsson", "Stockholm", List.of("1 möte: Volvo", "Två möten: Basalt, OP"))));
+
+        assertEquals(List.of(new MeetingFrequency("123", "Test testsson", 3, List.of("Volvo", "Basalt", "OP"), "Stockholm")), result);
+    }
+}
@@ -0,0 +1,60 @@
+package frequency.service.process.local;
+
+import meeting.frequency.service.process.local.MeetingLineParser;
+import meeting.frequency.service.process.model.ParsedMeetings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MeetingLineParserTest {
+
+    private final MeetingLineParser meetingLineParser = new MeetingLineParser();
+
+    @Test
+    public void should_parse_comma_and_bullet_separated_companies() {
+
+        assertEquals(Optional.of(new ParsedMeetings(3, List.of("Volvo", "Scania", "Ericsson"))),
+                meetingLineParser.parsePost("3 möten: Volvo, Scania • Ericsson"));
+    }
+
+    @Test
+    public void should_parse_single_meeting_in_parenthesis() {
+
+        assertEquals(Optional.of(new ParsedMeetings(1, List.of("Volvo"))),
+                meetingLineParser.parsePost("1 möte (Volvo)"));
+    }
+
+    @Test
+    public void should_parse_slack_formatting_and_links() {
+
+        assertEquals(Optional.of(new ParsedMeetings(2, List.of("Volvo", "H&M"))),
+                meetingLineParser.parsePost(":handshake: *2 möten* <https://volvo.se|Volvo>, H&amp;M."));
+    }
+
+    @Test
+    public void should_sum_lines_and_ignore_chatter() {
+
+        assertEquals(Optional.of(new ParsedMeetings(3, List.of("Volvo", "Scania"))),
+                meetingLineParser.parsePost("2 möten: Volvo\n1 möte: Scania\nTrevlig helg!"));
+    }
+
+    @Test
+    public void should_parse_companies_continued_on_next_line() {
+
+        assertEquals(Optional.of(new ParsedMeetings(3, List.of("Volvo", "Scania", "AT&T"))),
+                meetingLineParser.parsePost("3 möten: Volvo,\nScania • AT&amp;T\nTrevlig helg!"));
+    }
+
+    @Test
+    public void should_not_guess_when_post_is_ambiguous() {
+
+        assertEquals(Optional.empty(), meetingLineParser.parsePost("Två möten: Volvo"));
+        assertEquals(Optional.empty(), meetingLineParser.parsePost("3 möten:\nVolvo\nScania"));
+        assertEquals(Optional.empty(), meetingLineParser.parsePost("2 möten: ICA (två gånger), Coop"));
+        assertEquals(Optional.empty(), meetingLineParser.parsePost("2 möten: Volvo\nScania"));
+        assertEquals(Optional.empty(), meetingLineParser.parsePost("Bra vecka, 5 kunder"));
+    }
+}
@@ -0,0 +1,106 @@
+package frequency.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Stand-in for the chat completions endpoint, answers every "name -> posts --> office" line of the prompt
+public class OpenAIStubServer extends StubServer {
+
+    private final static Pattern PROMPT_LINE = Pattern.compile("^(.+?) -> (.*) --> (.+)$", Pattern.MULTILINE);
+    private final static Pattern NUMBER = Pattern.compile("\\d+");
+
+    private final AtomicInteger completions = new AtomicInteger();
+
+    private OpenAIStubServer(final StubBehaviour behaviour) {
+
+        super(behaviour);
+        handle("/v1/chat/completions", this::completion);
+    }
+
+    public static OpenAIStubServer start(final StubBehaviour behaviour) {
+
+        final OpenAIStubServer openAIStubServer = new OpenAIStubServer(behaviour);
+        openAIStubServer.start();
+
+        return openAIStubServer;
+    }
+
+    public String baseUrl() {
+        return origin() + "/v1";
+    }
+
+    private void completion(final HttpExchange exchange) throws IOException {
+
+        final JsonNode request = objectMapper.readTree(requestBody(exchange));
+
+        final StringBuilder prompt = new StringBuilder();
+        request.path("messages").forEach(message -> prompt.append(message.path("content").asText()).append('\n'));
+
+        final ObjectNode content = objectMapper.createObjectNode();
+        final ArrayNode items = content.putArray("meetingFrequencyItems");
+
+        final Matcher line = PROMPT_LINE.matcher(prompt);
+        while (line.find()) {
+            final ObjectNode item = items.addObject()
+                    .put("name", line.group(1).trim())
+                    .put("meetings", meetings(line.group(2)))
+                    .put("office", line.group(3).trim());
+            companies(line.group(2)).forEach(item.putArray("companies")::add);
+        }
+
+        final ObjectNode response = objectMapper.createObjectNode()
+                .put("id", "chatcmpl-stub-" + completions.incrementAndGet())
+                .put("object", "chat.completion")
+                .put("created", Instant.now().getEpochSecond())
+                .put("model", request.path("model").asText("gpt-4o-mini"));
+
+        response.putArray("choices").addObject()
+                .put("index", 0)
+                .put("finish_reason", "stop")
+                .putNull("logprobs")
+                .putObject("message")
+                .put("role", "assistant")
+                .put("content", objectMapper.writeValueAsString(content))
+                .putNull("refusal");
+
+        response.putObject("usage")
+                .put("prompt_tokens", prompt.length() / 4)
+                .put("completion_tokens", items.size() * 20)
+                .put("total_tokens", prompt.length() / 4 + items.size() * 20);
+
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    //The numbers in the posts, or one meeting per post where none is written as a digit
+    private static int meetings(final String posts) {
+
+        int meetings = 0;
+        for (String post : posts.split(" \\+ ")) {
+            final Matcher number = NUMBER.matcher(post);
+            meetings += number.find() ? Integer.parseInt(number.group()) : 1;
+        }
+
+        return meetings;
+    }
+
+    private static List<String> companies(final String posts) {
+
+        return Arrays.stream(posts.split(" \\+ "))
+                .map(post -> post.substring(post.indexOf(':') + 1))
+                .flatMap(companies -> Arrays.stream(companies.split("[,•]")))
+                .map(String::trim)
+                .filter(company -> !company.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,216 @@
+package frequency.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+//Stand-in for the Slack Web API, answers are built from the fixtures in src/test/resources/slack
+public class SlackStubServer extends StubServer {
+
+    private final static String API = "/api/";
+    private final static String UPLOAD = "/upload/";
+    private final static String CURSOR_PREFIX = "page:";
+    //Posts are spread over the six days before the server was started, inside the window a report reads
+    private final static int HISTORY_SECONDS = 6 * 24 * 60 * 60;
+    private final static int USER_LIST_PAGE_SIZE = 200;
+
+    private final int users;
+    private final int pages;
+    private final int pageSize;
+    private final long newestTimestamp = Instant.now().getEpochSecond();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+
+    private final ObjectNode historyTemplate = (ObjectNode) readFixture("slack/historyResponsePage.json");
+    private final ObjectNode userInfoTemplate = (ObjectNode) readFixture("slack/userResponse.json");
+    private final ObjectNode userListTemplate = (ObjectNode) readFixture("slack/userListResponse.json");
+
+    private SlackStubServer(final int users, final int pages, final int pageSize, final StubBehaviour behaviour) {
+
+        super(behaviour);
+        this.users = users;
+        this.pages = pages;
+        this.pageSize = pageSize;
+
+        handle(API + "conversations.history", this::history);
+        handle(API + "users.info", this::userInfo);
+        handle(API + "users.list", this::userList);
+        handle(API + "files.getUploadURLExternal", this::uploadUrl);
+        handle(UPLOAD, this::upload);
+        handle(API + "files.completeUploadExternal",
+                exchange -> respond(exchange, 200, fixture("slack/completeUploadFile.json")));
+    }
+
+    //pages * pageSize messages posted by users different people
+    public static SlackStubServer start(final int users, final int pages, final int pageSize, final StubBehaviour behaviour) {
+
+        final SlackStubServer slackStubServer = new SlackStubServer(users, pages, pageSize, behaviour);
+        slackStubServer.start();
+
+        return slackStubServer;
+    }
+
+    public String baseUrl() {
+        return origin() + "/api";
+    }
+
+    public long uploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    public static String userId(final int user) {
+        return "U%07d".formatted(user);
+    }
+
+    public static String realName(final int user) {
+        return "Stub User " + user;
+    }
+
+    private void history(final HttpExchange exchange) throws IOException {
+
+        final JsonNode cursor = objectMapper.readTree(requestBody(exchange)).path("cursor");
+        final int page = cursor.isTextual() && cursor.asText().startsWith(CURSOR_PREFIX)
+                ? Integer.parseInt(cursor.asText().substring(CURSOR_PREFIX.length()))
+                : 0;
+
+        final ObjectNode response = historyTemplate.deepCopy();
+        final ObjectNode messageTemplate = (ObjectNode) historyTemplate.path("messages").get(0);
+        final ArrayNode messages = response.putArray("messages");
+
+        for (int index = page * pageSize; index < (page + 1) * pageSize; index++) {
+            messages.add(message(messageTemplate, index));
+        }
+
+        final boolean hasMore = page + 1 < pages;
+        response.put("has_more", hasMore);
+        ((ObjectNode) response.path("response_metadata")).put("next_cursor", hasMore ? CURSOR_PREFIX + (page + 1) : "");
+
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    //Every seventh message is a channel join without blocks, every fifth post is one the local parser leaves to the LLM
+    private ObjectNode message(final ObjectNode messageTemplate, final int index) {
+
+        final ObjectNode message = messageTemplate.deepCopy();
+        final String text;
+
+        if (index % 7 == 0) {
+            text = "<@%s> has joined the channel".formatted(userId(index % users));
+            message.put("subtype", "channel_join");
+            message.remove("blocks");
+        } else {
+            text = index % 5 == 0 ? "Två möten: Volvo, Ica" : "%d möten: Scania, Ericsson • H&M".formatted(1 + index % 3);
+            ((ObjectNode) message.path("blocks").get(0).path("elements").get(0).path("elements").get(0)).put("text", text);
+        }
+
+        return message.put("user", userId(index % users))
+                .put("ts", "%d.%06d".formatted(newestTimestamp - index % HISTORY_SECONDS, index % 1_000_000))
+                .put("client_msg_id", "stub-" + index)
+                .put("text", text);
+    }
+
+    private void userInfo(final HttpExchange exchange) throws IOException {
+
+        final String userId = query(exchange).getOrDefault("user", "");
+        final int user = user(userId);
+
+        if (user < 0) {
+            respond(exchange, 200, fixture("slack/userResponseError.json"));
+            return;
+        }
+
+        final ObjectNode response = userInfoTemplate.deepCopy();
+        named((ObjectNode) response.path("user"), user);
+
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    private void userList(final HttpExchange exchange) throws IOException {
+
+        final String cursor = query(exchange).getOrDefault("cursor", "");
+        final int first = cursor.startsWith(CURSOR_PREFIX) ? Integer.parseInt(cursor.substring(CURSOR_PREFIX.length())) : 0;
+        final int last = Math.min(users, first + USER_LIST_PAGE_SIZE);
+
+        final ObjectNode response = userListTemplate.deepCopy();
+        final ObjectNode memberTemplate = (ObjectNode) userListTemplate.path("members").get(0);
+        final ArrayNode members = response.putArray("members");
+
+        for (int user = first; user < last; user++) {
+            members.add(named(memberTemplate.deepCopy(), user));
+        }
+
+        ((ObjectNode) response.path("response_metadata")).put("next_cursor", last < users ? CURSOR_PREFIX + last : "");
+
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    private void uploadUrl(final HttpExchange exchange) throws IOException {
+
+        final ObjectNode response = (ObjectNode) readFixture("slack/startUploadFile.json");
+        response.put("upload_url", origin() + UPLOAD + response.path("file_id").asText());
+
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    private void upload(final HttpExchange exchange) throws IOException {
+
+        final long bytes = exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        uploadedBytes.addAndGet(bytes);
+
+        respond(exchange, 200, "OK - " + bytes);
+    }
+
+    private ObjectNode named(final ObjectNode user, final int index) {
+
+        user.put("id", userId(index))
+                .put("name", "stub" + index)
+                .put("real_name", realName(index));
+        ((ObjectNode) user.path("profile")).put("real_name", realName(index));
+
+        return user;
+    }
+
+    private int user(final String userId) {
+
+        try {
+            final int user = Integer.parseInt(userId.substring(1));
+            return userId.equals(userId(user)) && user < users ? user : -1;
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> query(final HttpExchange exchange) {
+
+        final String query = exchange.getRequestURI().getRawQuery();
+
+        if (query == null) {
+            return Map.of();
+        }
+
+        return Arrays.stream(query.split("&"))
+                .map(parameter -> parameter.split("=", 2))
+                .collect(Collectors.toMap(parameter -> parameter[0],
+                        parameter -> parameter.length > 1 ? URLDecoder.decode(parameter[1], StandardCharsets.UTF_8) : "",
+                        (first, second) -> second));
+    }
+
+    private JsonNode readFixture(final String fileName) {
+
+        try {
+            return objectMapper.readTree(fixture(fileName));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read fixture " + fileName, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package frequency.stub;
+
+import java.time.Duration;
+
+//How a stand-in server misbehaves: added latency on every response and a 429 on every n:th request (0 = never)
+public record StubBehaviour(Duration latency, int rateLimitEvery, int retryAfterSeconds) {
+
+    public static StubBehaviour none() {
+        return new StubBehaviour(Duration.ZERO, 0, 0);
+    }
+}
@@ -0,0 +1,137 @@
+package frequency.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+//Plain JDK HttpServer on a free local port, shared plumbing for the Slack and OpenAI stand-ins
+abstract class StubServer implements AutoCloseable {
+
+    protected final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final StubBehaviour behaviour;
+    private final AtomicInteger received = new AtomicInteger();
+    private final Map<String, AtomicInteger> requestsPerPath = new ConcurrentHashMap<>();
+
+    protected StubServer(final StubBehaviour behaviour) {
+
+        this.behaviour = behaviour;
+
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(executor);
+    }
+
+    protected void handle(final String path, final HttpHandler handler) {
+
+        server.createContext(path, exchange -> {
+            try {
+                requestsPerPath.computeIfAbsent(exchange.getRequestURI().getPath(), key -> new AtomicInteger()).incrementAndGet();
+                sleep();
+
+                if (behaviour.rateLimitEvery() > 0 && received.incrementAndGet() % behaviour.rateLimitEvery() == 0) {
+                    exchange.getResponseHeaders().add("Retry-After", String.valueOf(behaviour.retryAfterSeconds()));
+                    exchange.sendResponseHeaders(429, -1);
+                    return;
+                }
+
+                handler.handle(exchange);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    protected void start() {
+        server.start();
+    }
+
+    protected String origin() {
+        return "http://%s:%d".formatted(server.getAddress().getHostString(), server.getAddress().getPort());
+    }
+
+    //Requests received on a path, rate limited ones included
+    public int requests(final String path) {
+
+        final AtomicInteger requests = requestsPerPath.get(path);
+        return requests == null ? 0 : requests.get();
+    }
+
+    protected static String requestBody(final HttpExchange exchange) throws IOException {
+
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    //Gzip when the client asks for it, like Slack does
+    protected static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    protected static String fixture(final String fileName) {
+
+        try (InputStream inputStream = StubServer.class.getClassLoader().getResourceAsStream(fileName)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void sleep() {
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(behaviour.latency().toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+package frequency.stub;
+
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.OfficeRoster;
+import meeting.frequency.secret.model.SlackSecrets;
+import meeting.frequency.service.fetch.FetchSlackMessages;
+import meeting.frequency.service.fetch.model.Message;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.fetch.user.SlackUserResolver;
+import meeting.frequency.service.integration.HttpTransport;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.SlackRequestScheduler;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StubServersTest {
+
+    private final static Logger LOGGER = Logger.getLogger("test");
+
+    //Every seventh of the 150 messages is a channel join
+    private final static int POSTS = 150 - 22;
+
+    @TempDir
+    Path historyDirectory;
+
+    @Test
+    public void should_read_every_page_and_resolve_every_user() {
+
+        try (SlackStubServer slack = SlackStubServer.start(20, 3, 50, StubBehaviour.none())) {
+
+            final SlackHttpClient slackHttpClient = slackHttpClient(slack);
+            final List<Message> messages = new FetchSlackMessages(slackHttpClient::streamSlackHistory,
+                    new SlackUserResolver(slackHttpClient, 4, LOGGER), 50, () -> OfficeRoster.of(Map.of()),
+                    new OfficeDirectory(LOGGER), new Metrics(Clock.systemUTC()), LOGGER).fetchMessages();
+
+            assertEquals(20, messages.size());
+            assertEquals(POSTS, messages.stream().mapToInt(message -> message.rawMessages().size()).sum());
+            assertEquals(3, slack.requests("/api/conversations.history"));
+            assertEquals(20, slack.requests("/api/users.info"));
+        }
+    }
+
+    @Test
+    public void should_retry_rate_limited_requests() {
+
+        try (SlackStubServer slack = SlackStubServer.start(20, 3, 50, new StubBehaviour(Duration.ofMillis(5), 2, 0))) {
+
+            assertEquals(150, slackHttpClient(slack).streamSlackHistory(0).count());
+            assertEquals(5, slack.requests("/api/conversations.history"));
+        }
+    }
+
+    @Test
+    public void should_upload_through_the_upload_url_handed_out() {
+
+        try (SlackStubServer slack = SlackStubServer.start(1, 1, 1, StubBehaviour.none())) {
+
+            assertTrue(slackHttpClient(slack).uploadFile("report.xlsx", new byte[1234]));
+            assertEquals(1234, slack.uploadedBytes());
+            assertEquals(1, slack.requests("/api/files.completeUploadExternal"));
+        }
+    }
+
+    @Test
+    public void should_run_weekly_report_against_both_stubs() {
+
+        try (SlackStubServer slack = SlackStubServer.start(20, 3, 50, StubBehaviour.none());
+             OpenAIStubServer openAI = OpenAIStubServer.start(StubBehaviour.none())) {
+
+            final List<MeetingFrequency> report =
+                    StubbedReportRun.handler(slack, openAI, 20, historyDirectory, LOGGER).weeklyReport();
+
+            final Map<String, Integer> meetings = report.stream()
+                    .collect(Collectors.toMap(MeetingFrequency::name, MeetingFrequency::meetings));
+
+            assertEquals(IntStream.range(0, 20).mapToObj(SlackStubServer::realName).collect(Collectors.toSet()), meetings.keySet());
+            assertFalse(openAI.requests("/v1/chat/completions") == 0);
+            assertTrue(slack.uploadedBytes() > 0);
+        }
+    }
+
+    private SlackHttpClient slackHttpClient(final SlackStubServer slack) {
+
+        return new SlackHttpClient(new SlackSecrets("stub-token", "CSTUB", "CSTUB"), HttpTransport.httpClient(),
+                new SlackRequestScheduler(5, LOGGER), slack.baseUrl(), LOGGER);
+    }
+}
@@ -0,0 +1,101 @@
+package frequency.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import meeting.frequency.Handler;
+import meeting.frequency.metrics.Metrics;
+import meeting.frequency.parameter.Office;
+import meeting.frequency.parameter.OfficeRoster;
+import meeting.frequency.secret.model.SlackSecrets;
+import meeting.frequency.service.fetch.FetchSlackMessages;
+import meeting.frequency.service.fetch.office.OfficeDirectory;
+import meeting.frequency.service.fetch.user.AdaptiveUserResolver;
+import meeting.frequency.service.fetch.user.BulkUserResolver;
+import meeting.frequency.service.fetch.user.SlackUserResolver;
+import meeting.frequency.service.generate.ExcelClient;
+import meeting.frequency.service.generate.ExcelDocumentService;
+import meeting.frequency.service.history.FileHistoryService;
+import meeting.frequency.service.integration.HttpTransport;
+import meeting.frequency.service.integration.slack.SlackHttpClient;
+import meeting.frequency.service.integration.slack.SlackRequestScheduler;
+import meeting.frequency.service.process.OpenAIService;
+import meeting.frequency.service.process.local.LocalMeetingParserService;
+import meeting.frequency.service.process.model.MeetingFrequency;
+import meeting.frequency.service.upload.SlackUploadService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Times a full weekly report against the stand-in servers, e.g.
+//StubbedReportRun <users> <pages> <page size> <latency ms> <429 every n:th request>
+public class StubbedReportRun {
+
+    private final static Office[] OFFICES = Office.values();
+
+    public static void main(final String[] args) throws IOException {
+
+        final int users = argument(args, 0, 500);
+        final int pages = argument(args, 1, 20);
+        final int pageSize = argument(args, 2, 999);
+        final StubBehaviour behaviour = new StubBehaviour(Duration.ofMillis(argument(args, 3, 50)), argument(args, 4, 0), 1);
+
+        final Logger logger = Logger.getLogger(StubbedReportRun.class.getName());
+        logger.setLevel(Level.WARNING);
+
+        final Path historyDirectory = Files.createTempDirectory("stubbed-history");
+
+        try (SlackStubServer slack = SlackStubServer.start(users, pages, pageSize, behaviour);
+             OpenAIStubServer openAI = OpenAIStubServer.start(behaviour)) {
+
+            final long start = System.nanoTime();
+            final List<MeetingFrequency> report = handler(slack, openAI, users, historyDirectory, logger).weeklyReport();
+            final long elapsed = System.nanoTime() - start;
+
+            System.out.println(("{\"messages\":%d,\"users\":%d,\"people\":%d,\"historyRequests\":%d,\"userRequests\":%d," +
+                    "\"completionRequests\":%d,\"uploadedBytes\":%d,\"reportMs\":%d}").formatted(
+                    pages * pageSize, users, report.size(),
+                    slack.requests("/api/conversations.history"),
+                    slack.requests("/api/users.info") + slack.requests("/api/users.list"),
+                    openAI.requests("/v1/chat/completions"),
+                    slack.uploadedBytes(),
+                    Duration.ofNanos(elapsed).toMillis()));
+        }
+    }
+
+    //Wired like the function, only the base urls, secrets and the roster are made up
+    static Handler handler(final SlackStubServer slack, final OpenAIStubServer openAI, final int users,
+                           final Path historyDirectory, final Logger logger) {
+
+        final SlackHttpClient slackHttpClient = new SlackHttpClient(new SlackSecrets("stub-token", "CSTUB", "CSTUB"),
+                HttpTransport.httpClient(), new SlackRequestScheduler(5, logger), slack.baseUrl(), logger);
+
+        final OfficeRoster roster = OfficeRoster.of(IntStream.range(0, users)
+                .boxed()
+                .collect(Collectors.toMap(SlackStubServer::realName, user -> OFFICES[user % OFFICES.length])));
+
+        return new Handler(
+                new FetchSlackMessages(slackHttpClient::streamSlackHistory,
+                        new AdaptiveUserResolver(new BulkUserResolver(slackHttpClient, logger),
+                                new SlackUserResolver(slackHttpClient, 8, logger), 50),
+                        50, () -> roster, new OfficeDirectory(logger), new Metrics(Clock.systemUTC()), logger),
+                new LocalMeetingParserService(
+                        new OpenAIService(HttpTransport.openAIClient("stub-key", openAI.baseUrl()), new ObjectMapper(),
+                                4, 2_000, logger),
+                        logger),
+                new ExcelDocumentService(new ExcelClient("stub")),
+                new SlackUploadService(slackHttpClient),
+                new FileHistoryService(historyDirectory, 13, logger),
+                logger);
+    }
+
+    private static int argument(final String[] args, final int index, final int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}